@@ -0,0 +1,67 @@
+/*
+ * This file is part of PlaceholderAPI
+ *
+ * PlaceholderAPI
+ * Copyright (c) 2015 - 2021 PlaceholderAPI Team
+ *
+ * PlaceholderAPI free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PlaceholderAPI is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package me.clip.placeholderapi;
+
+import org.jetbrains.annotations.NotNull;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks once for every thread count in {@link #THREADS}, with the allocation per
+ * operation reported by {@code -prof gc}.
+ * <br>Accepts the arguments of the JMH command line, a thread count given with {@code -t} or a
+ * profiler given with {@code -prof} replace the defaults.
+ */
+public final class BenchmarkSuite {
+
+  private static final int[] THREADS = {1, 4, 16, 64};
+
+
+  private BenchmarkSuite() {
+  }
+
+
+  public static void main(@NotNull final String[] args) throws Exception {
+    final CommandLineOptions options = new CommandLineOptions(args);
+
+    if (options.shouldHelp() || options.shouldList() || options.shouldListWithParams()
+        || options.shouldListProfilers() || options.shouldListResultFormats()) {
+      org.openjdk.jmh.Main.main(args);
+      return;
+    }
+
+    final int[] threads = options.getThreads().hasValue()
+        ? new int[]{options.getThreads().get()} : THREADS;
+
+    for (final int count : threads) {
+      final ChainedOptionsBuilder builder = new OptionsBuilder().parent(options).threads(count);
+      if (options.getProfilers().isEmpty()) {
+        builder.addProfiler(GCProfiler.class);
+      }
+
+      new Runner(builder.build()).run();
+    }
+  }
+
+}
@@ -0,0 +1,77 @@
+/*
+ * This file is part of PlaceholderAPI
+ *
+ * PlaceholderAPI
+ * Copyright (c) 2015 - 2021 PlaceholderAPI Team
+ *
+ * PlaceholderAPI free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PlaceholderAPI is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package me.clip.placeholderapi.expansion.manager;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import me.clip.placeholderapi.Values;
+import me.clip.placeholderapi.expansion.PlaceholderExpansion;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ExpansionRegistryBenchmarks {
+
+  private final ExpansionRegistry registry = new ExpansionRegistry();
+
+  private final Map<String, PlaceholderExpansion> lockedExpansions = new ConcurrentHashMap<>();
+  private final ReentrantLock lockedExpansionsLock = new ReentrantLock();
+
+
+  @Setup
+  public void setup() {
+    for (final Map.Entry<String, PlaceholderExpansion> entry : Values.PLACEHOLDERS.entrySet()) {
+      registry.put(entry.getKey(), entry.getValue());
+      lockedExpansions.put(entry.getKey(), entry.getValue());
+    }
+  }
+
+  @Benchmark
+  public PlaceholderExpansion measureSnapshotRead() {
+    return registry.apply("player");
+  }
+
+  @Benchmark
+  public PlaceholderExpansion measureLockedRead() {
+    lockedExpansionsLock.lock();
+    try {
+      return lockedExpansions.get("player");
+    } finally {
+      lockedExpansionsLock.unlock();
+    }
+  }
+
+}
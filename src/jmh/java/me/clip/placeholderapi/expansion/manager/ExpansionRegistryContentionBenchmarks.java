@@ -0,0 +1,118 @@
+/*
+ * This file is part of PlaceholderAPI
+ *
+ * PlaceholderAPI
+ * Copyright (c) 2015 - 2021 PlaceholderAPI Team
+ *
+ * PlaceholderAPI free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PlaceholderAPI is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package me.clip.placeholderapi.expansion.manager;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import me.clip.placeholderapi.Values;
+import me.clip.placeholderapi.expansion.PlaceholderExpansion;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Looks up expansions while another thread keeps registering and unregistering one, the way
+ * plugins do at runtime. The registry is filled with as many expansions as large servers have.
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ExpansionRegistryContentionBenchmarks {
+
+  private static final String TEXT = "%player_name%";
+
+
+  @Param({"10", "100"})
+  public int expansions;
+
+  private final ExpansionRegistry registry = new ExpansionRegistry();
+  private final PlaceholderExpansion churned = new Values.MockNamedPlaceholderExpansion("churned");
+
+
+  @Setup
+  public void setup() {
+    for (final Map.Entry<String, PlaceholderExpansion> entry : Values.PLACEHOLDERS.entrySet()) {
+      registry.put(entry.getKey(), entry.getValue());
+    }
+    for (int i = registry.snapshot().size(); i < expansions; i++) {
+      registry.put("expansion" + i, new Values.MockNamedPlaceholderExpansion("expansion" + i));
+    }
+  }
+
+  @Benchmark
+  @Group("churn")
+  @GroupThreads(7)
+  public PlaceholderExpansion measureGetExpansion() {
+    return registry.apply("player");
+  }
+
+  @Benchmark
+  @Group("churn")
+  @GroupThreads(1)
+  public boolean measureRegisterUnregister() {
+    registry.put("churned", churned);
+    return registry.remove("churned", churned);
+  }
+
+  @Benchmark
+  @Group("churnLookup")
+  @GroupThreads(7)
+  public PlaceholderExpansion measureFindInText() {
+    return registry.find(TEXT, 1, 7);
+  }
+
+  @Benchmark
+  @Group("churnLookup")
+  @GroupThreads(1)
+  public boolean measureRegisterUnregisterDuringFind() {
+    registry.put("churned", churned);
+    return registry.remove("churned", churned);
+  }
+
+  @Benchmark
+  @Group("churnSnapshot")
+  @GroupThreads(7)
+  public int measureGetIdentifiers() {
+    return registry.snapshot().keySet().size();
+  }
+
+  @Benchmark
+  @Group("churnSnapshot")
+  @GroupThreads(1)
+  public boolean measureRegisterUnregisterDuringSnapshot() {
+    registry.put("churned", churned);
+    return registry.remove("churned", churned);
+  }
+
+}
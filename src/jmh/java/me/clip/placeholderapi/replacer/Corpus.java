@@ -0,0 +1,115 @@
+/*
+ * This file is part of PlaceholderAPI
+ *
+ * PlaceholderAPI
+ * Copyright (c) 2015 - 2021 PlaceholderAPI Team
+ *
+ * PlaceholderAPI free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PlaceholderAPI is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package me.clip.placeholderapi.replacer;
+
+import java.util.Arrays;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Texts the replacers are measured on, modelled after where placeholders are used on servers.
+ */
+enum Corpus {
+
+  /**
+   * The lines of a sidebar, short and almost all with a placeholder
+   */
+  SCOREBOARD(Replacer.Closure.PERCENT,
+      "&6&lSTATISTICS",
+      "&7",
+      "&7Name: &f%player_name%",
+      "&7Location: &f%player_x%&7, &f%player_y%&7, &f%player_z%",
+      "&7Rank: &f%player_upper_member%",
+      "&7 ",
+      "&7Kills: &f%player_upper_12% &7Deaths: &f%player_upper_3%",
+      "&7Online: &f%player_upper_42%",
+      "&7  ",
+      "&eplay.example.net"),
+
+  /**
+   * The 30 lines of an item lore, mostly plain colored text with a few placeholders
+   */
+  LORE(Replacer.Closure.PERCENT, lore()),
+
+  /**
+   * Chat messages, with percent signs that don't belong to a placeholder
+   */
+  CHAT(Replacer.Closure.PERCENT,
+      "&7[&aMember&7] %player_name%&7: is the sale really 50% off? or was it 25%",
+      "&7[&aMember&7] %player_name%&7: 100% agree, 80%+ of the map is still unexplored",
+      "&7[&aMember&7] %player_name%&7: lol %",
+      "&7[&aMember&7] %player_name%&7: my coords are %player_x% %player_y% %player_z% :)",
+      "&7[&aMember&7] %player_name%&7: anyone seen % this % weird % bug % before?"),
+
+  /**
+   * Lines with hex colors in the legacy {@code &x&r&r&g&g&b&b} format
+   */
+  HEX(Replacer.Closure.PERCENT,
+      "&x&f&f&a&a&0&0&lRANK &x&1&2&3&4&5&6%player_upper_vip% &x&a&b&c&d&e&f%player_name%",
+      "&x&0&0&f&f&0&0Coordinates &x&f&f&f&f&f&f%player_x% %player_y% %player_z%",
+      "&x&f&f&0&0&0&0&lW&x&f&f&7&f&0&0&lE&x&f&f&f&f&0&0&lL&x&0&0&f&f&0&0&lC&x&0&0&0&0&f&f&lO"
+          + "&x&4&b&0&0&8&2&lM&x&9&4&0&0&d&3&lE"),
+
+  /**
+   * Placeholders of expansions that aren't installed, mixed with installed ones
+   */
+  UNKNOWN(Replacer.Closure.PERCENT,
+      "%luckperms_prefix%%player_name%%luckperms_suffix%",
+      "&7Balance: &f%vault_eco_balance_formatted% &7Tokens: &f%tokenmanager_tokens%",
+      "&7Server: &f%server_name% &7TPS: &f%server_tps_1%",
+      "&7Ping: &f%player_ping% &7World: &f%player_world%"),
+
+  /**
+   * Placeholders in bracket closures, as used in messages of other plugins
+   */
+  BRACKET(Replacer.Closure.BRACKET,
+      "&7{player_name} &ajoined the game at {player_x}, {player_y}, {player_z}",
+      "&7Welcome back {player_name}, you were away for {unknown_time} {",
+      "&7The {config} keys { are not } placeholders, {player_upper_only} this one is");
+
+
+  @NotNull
+  final Replacer.Closure closure;
+  @NotNull
+  final String[] lines;
+
+
+  Corpus(@NotNull final Replacer.Closure closure, @NotNull final String... lines) {
+    this.closure = closure;
+    this.lines = lines;
+  }
+
+
+  @NotNull
+  private static String[] lore() {
+    final String[] lines = new String[30];
+    Arrays.fill(lines, "&7A sword forged in the fires of the old kingdom, sharp as ever.");
+
+    lines[0] = "&6&lExcalibur";
+    lines[1] = "&7Owner: &f%player_name%";
+    lines[2] = "&7";
+    lines[10] = "&7Found at &f%player_x%&7, &f%player_y%&7, &f%player_z%";
+    lines[20] = "&7Used &f%player_upper_1337% &7times";
+    lines[29] = "&8Soulbound to %player_upper_owner%";
+
+    return lines;
+  }
+
+}
@@ -0,0 +1,70 @@
+/*
+ * This file is part of PlaceholderAPI
+ *
+ * PlaceholderAPI
+ * Copyright (c) 2015 - 2021 PlaceholderAPI Team
+ *
+ * PlaceholderAPI free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PlaceholderAPI is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package me.clip.placeholderapi.replacer;
+
+import java.util.concurrent.TimeUnit;
+import me.clip.placeholderapi.Values;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Replaces relational placeholders the way name tags and chat formats of other plugins do, the
+ * text is scanned once for relational placeholders only.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class RelationalReplacerBenchmarks {
+
+  private static final String NAME_TAG = "%rel_relation_friend%%player_name%";
+  private static final String PLAIN_TEXT = "&7[&aMember&7] Sxtanna&7: is the sale 50% off?";
+
+
+  @Benchmark
+  public String measureRelationalReplacerText() {
+    return Values.RELATIONAL_REPLACER.apply(Values.RELATIONAL_TEXT, null, null,
+        Values.PLACEHOLDERS::get);
+  }
+
+  @Benchmark
+  public String measureRelationalReplacerNameTag() {
+    return Values.RELATIONAL_REPLACER.apply(NAME_TAG, null, null, Values.PLACEHOLDERS::get);
+  }
+
+  @Benchmark
+  public String measureRelationalReplacerTrieLookup() {
+    return Values.RELATIONAL_REPLACER.apply(Values.RELATIONAL_TEXT, null, null,
+        Values.PLACEHOLDER_TRIE);
+  }
+
+  @Benchmark
+  public String measureRelationalReplacerPlainText() {
+    return Values.RELATIONAL_REPLACER.apply(PLAIN_TEXT, null, null, Values.PLACEHOLDERS::get);
+  }
+
+}
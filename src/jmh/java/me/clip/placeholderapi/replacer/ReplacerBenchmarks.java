@@ -0,0 +1,108 @@
+/*
+ * This file is part of PlaceholderAPI
+ *
+ * PlaceholderAPI
+ * Copyright (c) 2015 - 2021 PlaceholderAPI Team
+ *
+ * PlaceholderAPI free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PlaceholderAPI is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package me.clip.placeholderapi.replacer;
+
+import java.util.concurrent.TimeUnit;
+import me.clip.placeholderapi.Values;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Replaces every line of a {@link Corpus} per operation.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ReplacerBenchmarks {
+
+  @Benchmark
+  public void measureCharsReplacer(final Text text, final Blackhole blackhole) {
+    for (final String line : text.lines) {
+      blackhole.consume(text.chars.apply(line, null, Values.PLACEHOLDER_TRIE));
+    }
+  }
+
+  @Benchmark
+  public void measureCharsReplacerMapLookup(final Text text, final Blackhole blackhole) {
+    for (final String line : text.lines) {
+      blackhole.consume(text.chars.apply(line, null, Values.PLACEHOLDERS::get));
+    }
+  }
+
+  @Benchmark
+  public void measureRegexReplacer(final Text text, final Blackhole blackhole) {
+    for (final String line : text.lines) {
+      blackhole.consume(text.regex.apply(line, null, Values.PLACEHOLDERS::get));
+    }
+  }
+
+  @Benchmark
+  public String measureCharsReplacerTwoPassMixedText() {
+    return Values.CHARS_REPLACER_BRACKET.apply(
+        Values.CHARS_REPLACER.apply(Values.MIXED_TEXT, null, Values.PLACEHOLDERS::get), null,
+        Values.PLACEHOLDERS::get);
+  }
+
+  @Benchmark
+  public String measureCharsReplacerSinglePassMixedText() {
+    return Values.CHARS_REPLACER_COMBINED.apply(Values.MIXED_TEXT, null, Values.PLACEHOLDERS::get);
+  }
+
+  @Benchmark
+  public String measureCharsReplacerNestedText() {
+    return Values.CHARS_REPLACER_NESTED.apply(Values.NESTED_TEXT, null, Values.PLACEHOLDERS::get);
+  }
+
+
+  @State(Scope.Benchmark)
+  public static class Text {
+
+    @Param({"SCOREBOARD", "LORE", "CHAT", "HEX", "UNKNOWN", "BRACKET"})
+    public String corpus;
+
+    private String[] lines;
+    private Replacer chars;
+    private Replacer regex;
+
+
+    @Setup
+    public void setup() {
+      final Corpus corpus = Corpus.valueOf(this.corpus);
+
+      lines = corpus.lines;
+      chars = new CharsReplacer(corpus.closure);
+      regex = new RegexReplacer(corpus.closure);
+    }
+  }
+
+}
@@ -20,20 +20,28 @@
 
 package me.clip.placeholderapi;
 
+import com.google.common.cache.CacheStats;
 import com.google.common.collect.ImmutableSet;
+import java.util.Collection;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.regex.Matcher;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 import me.clip.placeholderapi.expansion.PlaceholderExpansion;
-import me.clip.placeholderapi.expansion.Relational;
+import me.clip.placeholderapi.expansion.ThreadSafe;
 import me.clip.placeholderapi.expansion.manager.LocalExpansionManager;
 import me.clip.placeholderapi.replacer.CharsReplacer;
-import me.clip.placeholderapi.replacer.Replacer;
+import me.clip.placeholderapi.replacer.PlaceholderTemplate;
+import me.clip.placeholderapi.replacer.RelationalReplacer;
+import me.clip.placeholderapi.replacer.Resolver;
+import me.clip.placeholderapi.replacer.StyleVisitor;
+import me.clip.placeholderapi.replacer.TemplateCache;
 import me.clip.placeholderapi.replacer.Replacer.Closure;
-import me.clip.placeholderapi.util.Msg;
 import org.bukkit.OfflinePlayer;
 import org.bukkit.entity.Player;
 import org.bukkit.plugin.Plugin;
@@ -42,8 +50,18 @@ import org.jetbrains.annotations.NotNull;
 
 public final class PlaceholderAPI {
 
-  private static final Replacer REPLACER_PERCENT = new CharsReplacer(Closure.PERCENT);
-  private static final Replacer REPLACER_BRACKET = new CharsReplacer(Closure.BRACKET);
+  private static final Resolver RESOLVER = (expansion, player, params) -> PlaceholderAPIPlugin
+      .getInstance().getLocalExpansionManager().request(expansion, player, params);
+
+  private static final TemplateCache TEMPLATES_PERCENT = new TemplateCache(
+      new CharsReplacer(Closure.PERCENT, 0, RESOLVER), 0);
+  private static final TemplateCache TEMPLATES_BRACKET = new TemplateCache(
+      new CharsReplacer(Closure.BRACKET, 0, RESOLVER), 0);
+  private static final TemplateCache TEMPLATES_COMBINED = new TemplateCache(
+      new CharsReplacer(EnumSet.allOf(Closure.class), 0, RESOLVER), 0);
+  private static final RelationalReplacer RELATIONAL_REPLACER = new RelationalReplacer(
+      (expansion, one, two, params) -> PlaceholderAPIPlugin.getInstance()
+          .getLocalExpansionManager().requestRelational(expansion, one, two, params));
 
   private static final Pattern PLACEHOLDER_PATTERN = Pattern.compile("[%]([^%]+)[%]");
   private static final Pattern BRACKET_PLACEHOLDER_PATTERN = Pattern.compile("[{]([^{}]+)[}]");
@@ -67,8 +85,88 @@ public final class PlaceholderAPI {
   @NotNull
   public static String setPlaceholders(final OfflinePlayer player,
       @NotNull final String text) {
-    return REPLACER_PERCENT.apply(text, player,
-        PlaceholderAPIPlugin.getInstance().getLocalExpansionManager()::getExpansion);
+    return TEMPLATES_PERCENT.apply(text, player,
+        PlaceholderAPIPlugin.getInstance().getLocalExpansionManager().getExpansionLookup());
+  }
+
+  /**
+   * Translates all placeholders into their corresponding values and appends the result to the
+   * provided builder, instead of creating a new String.
+   * <br>The pattern of a valid placeholder is {@literal %<identifier>_<params>%}.
+   *
+   * @param player Player to parse the placeholders against
+   * @param text Text to set the placeholder values in
+   * @param builder Builder to append the translated text to
+   * @return The provided builder
+   */
+  @NotNull
+  public static StringBuilder setPlaceholders(final OfflinePlayer player,
+      @NotNull final CharSequence text, @NotNull final StringBuilder builder) {
+    TEMPLATES_PERCENT.applyTo(text, player,
+        PlaceholderAPIPlugin.getInstance().getLocalExpansionManager().getExpansionLookup(),
+        builder);
+    return builder;
+  }
+
+  /**
+   * Translates all placeholders into their corresponding values, without blocking the current
+   * thread on the main server thread.
+   * <br>Placeholders of {@link ThreadSafe} expansions are translated on the current thread, all
+   * others are translated on the main server thread, together with those of every other call made
+   * during the same tick.
+   * <br>The pattern of a valid placeholder is {@literal %<identifier>_<params>%}.
+   *
+   * @param player Player to parse the placeholders against
+   * @param text Text to set the placeholder values in
+   * @return Future completed with the text containing all translated placeholders
+   */
+  @NotNull
+  public static CompletableFuture<String> setPlaceholdersAsync(final OfflinePlayer player,
+      @NotNull final String text) {
+    final PlaceholderAPIPlugin plugin = PlaceholderAPIPlugin.getInstance();
+    final Function<String, PlaceholderExpansion> lookup =
+        plugin.getLocalExpansionManager().getExpansionLookup();
+
+    return TEMPLATES_PERCENT.template(text, lookup)
+        .renderAsync(player, lookup, plugin.getMainThreadExecutor());
+  }
+
+  /**
+   * Translates all placeholders into their corresponding values for every provided player.
+   * <br>The text is only parsed once and every expansion is only looked up once, which makes this
+   * a lot cheaper than calling {@link #setPlaceholders(OfflinePlayer, String)} for each player,
+   * for example when updating a tab list for everyone online.
+   * <br>The pattern of a valid placeholder is {@literal %<identifier>_<params>%}.
+   *
+   * @param players Players to parse the placeholders against
+   * @param text Text to set the placeholder values in
+   * @return Map of the unique id of every player to its translated text
+   */
+  @NotNull
+  public static Map<UUID, String> setPlaceholdersForAll(
+      @NotNull final Collection<? extends OfflinePlayer> players, @NotNull final String text) {
+    final Function<String, PlaceholderExpansion> lookup =
+        PlaceholderAPIPlugin.getInstance().getLocalExpansionManager().getExpansionLookup();
+
+    return TEMPLATES_PERCENT.template(text, lookup).renderAll(players, lookup);
+  }
+
+  /**
+   * Translates all placeholders into their corresponding values and passes the result to the
+   * provided visitor as runs of text and formatting codes, which can be used to build rich text
+   * like Adventure Components without parsing a legacy String.
+   * <br>The pattern of a valid placeholder is {@literal %<identifier>_<params>%}.
+   *
+   * @param player Player to parse the placeholders against
+   * @param text Text to set the placeholder values in
+   * @param visitor Visitor receiving the translated text
+   */
+  public static void setPlaceholders(final OfflinePlayer player, @NotNull final String text,
+      @NotNull final StyleVisitor visitor) {
+    final Function<String, PlaceholderExpansion> lookup =
+        PlaceholderAPIPlugin.getInstance().getLocalExpansionManager().getExpansionLookup();
+
+    TEMPLATES_PERCENT.template(text, lookup).renderStyled(player, lookup, visitor);
   }
 
   /**
@@ -82,7 +180,8 @@ public final class PlaceholderAPI {
   @NotNull
   public static List<String> setPlaceholders(final OfflinePlayer player,
       @NotNull final List<@NotNull String> text) {
-    return text.stream().map(line -> setPlaceholders(player, line)).collect(Collectors.toList());
+    return TEMPLATES_PERCENT.applyAll(text, player,
+        PlaceholderAPIPlugin.getInstance().getLocalExpansionManager().getExpansionLookup());
   }
 
   /**
@@ -122,8 +221,85 @@ public final class PlaceholderAPI {
   @NotNull
   public static String setBracketPlaceholders(final OfflinePlayer player,
       @NotNull final String text) {
-    return REPLACER_BRACKET.apply(text, player,
-        PlaceholderAPIPlugin.getInstance().getLocalExpansionManager()::getExpansion);
+    return TEMPLATES_BRACKET.apply(text, player,
+        PlaceholderAPIPlugin.getInstance().getLocalExpansionManager().getExpansionLookup());
+  }
+
+  /**
+   * Translates all placeholders into their corresponding values and appends the result to the
+   * provided builder, instead of creating a new String.
+   * <br>The pattern of a valid placeholder is {@literal {<identifier>_<params>}}.
+   *
+   * @param player Player to parse the placeholders against
+   * @param text Text to set the placeholder values in
+   * @param builder Builder to append the translated text to
+   * @return The provided builder
+   */
+  @NotNull
+  public static StringBuilder setBracketPlaceholders(final OfflinePlayer player,
+      @NotNull final CharSequence text, @NotNull final StringBuilder builder) {
+    TEMPLATES_BRACKET.applyTo(text, player,
+        PlaceholderAPIPlugin.getInstance().getLocalExpansionManager().getExpansionLookup(),
+        builder);
+    return builder;
+  }
+
+  /**
+   * Translates all placeholders into their corresponding values, without blocking the current
+   * thread on the main server thread.
+   * <br>The pattern of a valid placeholder is {@literal {<identifier>_<params>}}.
+   *
+   * @param player Player to parse the placeholders against
+   * @param text Text to set the placeholder values in
+   * @return Future completed with the text containing all translated placeholders
+   * @see #setPlaceholdersAsync(OfflinePlayer, String)
+   */
+  @NotNull
+  public static CompletableFuture<String> setBracketPlaceholdersAsync(final OfflinePlayer player,
+      @NotNull final String text) {
+    final PlaceholderAPIPlugin plugin = PlaceholderAPIPlugin.getInstance();
+    final Function<String, PlaceholderExpansion> lookup =
+        plugin.getLocalExpansionManager().getExpansionLookup();
+
+    return TEMPLATES_BRACKET.template(text, lookup)
+        .renderAsync(player, lookup, plugin.getMainThreadExecutor());
+  }
+
+  /**
+   * Translates all placeholders into their corresponding values for every provided player.
+   * <br>The text is only parsed once and every expansion is only looked up once.
+   * <br>The pattern of a valid placeholder is {@literal {<identifier>_<params>}}.
+   *
+   * @param players Players to parse the placeholders against
+   * @param text Text to set the placeholder values in
+   * @return Map of the unique id of every player to its translated text
+   * @see #setPlaceholdersForAll(Collection, String)
+   */
+  @NotNull
+  public static Map<UUID, String> setBracketPlaceholdersForAll(
+      @NotNull final Collection<? extends OfflinePlayer> players, @NotNull final String text) {
+    final Function<String, PlaceholderExpansion> lookup =
+        PlaceholderAPIPlugin.getInstance().getLocalExpansionManager().getExpansionLookup();
+
+    return TEMPLATES_BRACKET.template(text, lookup).renderAll(players, lookup);
+  }
+
+  /**
+   * Translates all placeholders into their corresponding values and passes the result to the
+   * provided visitor as runs of text and formatting codes.
+   * <br>The pattern of a valid placeholder is {@literal {<identifier>_<params>}}.
+   *
+   * @param player Player to parse the placeholders against
+   * @param text Text to set the placeholder values in
+   * @param visitor Visitor receiving the translated text
+   * @see #setPlaceholders(OfflinePlayer, String, StyleVisitor)
+   */
+  public static void setBracketPlaceholders(final OfflinePlayer player,
+      @NotNull final String text, @NotNull final StyleVisitor visitor) {
+    final Function<String, PlaceholderExpansion> lookup =
+        PlaceholderAPIPlugin.getInstance().getLocalExpansionManager().getExpansionLookup();
+
+    TEMPLATES_BRACKET.template(text, lookup).renderStyled(player, lookup, visitor);
   }
 
   /**
@@ -137,8 +313,8 @@ public final class PlaceholderAPI {
   @NotNull
   public static List<String> setBracketPlaceholders(final OfflinePlayer player,
       @NotNull final List<@NotNull String> text) {
-    return text.stream().map(line -> setBracketPlaceholders(player, line))
-        .collect(Collectors.toList());
+    return TEMPLATES_BRACKET.applyAll(text, player,
+        PlaceholderAPIPlugin.getInstance().getLocalExpansionManager().getExpansionLookup());
   }
   
   /**
@@ -165,6 +341,67 @@ public final class PlaceholderAPI {
     return setBracketPlaceholders((OfflinePlayer) player, text);
   }
 
+  /**
+   * Translates the placeholders of all provided closures into their corresponding values, in a
+   * single pass over the text.
+   * <br>Passing both {@link Closure#PERCENT} and {@link Closure#BRACKET} replaces calling
+   * {@link #setPlaceholders(OfflinePlayer, String)} and
+   * {@link #setBracketPlaceholders(OfflinePlayer, String)} one after another. Note that values
+   * returned by the expansions are not parsed again for placeholders of the other closure.
+   *
+   * @param player Player to parse the placeholders against
+   * @param text Text to set the placeholder values in
+   * @param closures The closures of the placeholders to translate
+   * @return String containing all translated placeholders
+   */
+  @NotNull
+  public static String setPlaceholders(final OfflinePlayer player, @NotNull final String text,
+      @NotNull final Set<Closure> closures) {
+    final TemplateCache templates;
+
+    if (closures.contains(Closure.PERCENT)) {
+      templates = closures.contains(Closure.BRACKET) ? TEMPLATES_COMBINED : TEMPLATES_PERCENT;
+    } else if (closures.contains(Closure.BRACKET)) {
+      templates = TEMPLATES_BRACKET;
+    } else {
+      return text;
+    }
+
+    return templates.apply(text, player,
+        PlaceholderAPIPlugin.getInstance().getLocalExpansionManager().getExpansionLookup());
+  }
+
+  /**
+   * Parses the text once into a reusable {@link PlaceholderTemplate}.
+   * <br>Rendering the template gives the same result as {@link #setPlaceholders(OfflinePlayer, String)},
+   * without scanning the text again. Use this for texts that are parsed over and over, like
+   * scoreboard or tab list lines.
+   * <br>The pattern of a valid placeholder is {@literal %<identifier>_<params>%}.
+   *
+   * @param text Text to parse
+   * @return Template of the text, which can be rendered for any player
+   */
+  @NotNull
+  public static PlaceholderTemplate compile(@NotNull final String text) {
+    return TEMPLATES_PERCENT.getReplacer().compile(text,
+        PlaceholderAPIPlugin.getInstance().getLocalExpansionManager().getExpansionLookup());
+  }
+
+  /**
+   * Parses the text once into a reusable {@link PlaceholderTemplate}.
+   * <br>Rendering the template gives the same result as
+   * {@link #setBracketPlaceholders(OfflinePlayer, String)}, without scanning the text again.
+   * <br>The pattern of a valid placeholder is {@literal {<identifier>_<params>}}.
+   *
+   * @param text Text to parse
+   * @return Template of the text, which can be rendered for any player
+   */
+  @NotNull
+  public static PlaceholderTemplate compileBracketPlaceholders(@NotNull final String text) {
+    return TEMPLATES_BRACKET.getReplacer().compile(text,
+        PlaceholderAPIPlugin.getInstance().getLocalExpansionManager().getExpansionLookup());
+  }
+
   /**
    * set relational placeholders in the text specified placeholders are matched with the pattern
    * {@literal %<rel_(identifier)_(params)>%} when set with this method
@@ -175,33 +412,8 @@ public final class PlaceholderAPI {
    * @return The text containing the parsed relational placeholders
    */
   public static String setRelationalPlaceholders(Player one, Player two, String text) {
-    final Matcher matcher = RELATIONAL_PLACEHOLDER_PATTERN.matcher(text);
-
-    while (matcher.find()) {
-      final String format = matcher.group(2);
-      final int index = format.indexOf("_");
-
-      if (index <= 0 || index >= format.length()) {
-        continue;
-      }
-
-      String identifier = format.substring(0, index).toLowerCase();
-      String params = format.substring(index + 1);
-      final PlaceholderExpansion expansion = PlaceholderAPIPlugin.getInstance()
-          .getLocalExpansionManager().getExpansion(identifier);
-
-      if (!(expansion instanceof Relational)) {
-        continue;
-      }
-
-      final String value = ((Relational) expansion).onPlaceholderRequest(one, two, params);
-
-      if (value != null) {
-        text = text.replaceAll(Pattern.quote(matcher.group()), Matcher.quoteReplacement(value));
-      }
-    }
-
-    return Msg.color(text);
+    return RELATIONAL_REPLACER.apply(text, one, two,
+        PlaceholderAPIPlugin.getInstance().getLocalExpansionManager().getExpansionLookup());
   }
 
   /**
@@ -289,6 +501,50 @@ public final class PlaceholderAPI {
     return text != null && BRACKET_PLACEHOLDER_PATTERN.matcher(text).find();
   }
 
+  /**
+   * Get the combined hit and miss counters of the caches used by
+   * {@link #setPlaceholders(OfflinePlayer, String)} and
+   * {@link #setBracketPlaceholders(OfflinePlayer, String)} to avoid parsing the same text twice.
+   *
+   * @return Statistics of the parse caches
+   */
+  @NotNull
+  public static CacheStats getParseCacheStats() {
+    return TEMPLATES_PERCENT.stats().plus(TEMPLATES_BRACKET.stats())
+        .plus(TEMPLATES_COMBINED.stats());
+  }
+
+  /**
+   * Get the amount of parsed texts currently held by the parse caches.
+   *
+   * @return Amount of cached texts
+   */
+  public static long getParseCacheSize() {
+    return TEMPLATES_PERCENT.size() + TEMPLATES_BRACKET.size() + TEMPLATES_COMBINED.size();
+  }
+
+  @ApiStatus.Internal
+  public static void resizeParseCaches(final long maximumSize) {
+    TEMPLATES_PERCENT.resize(maximumSize);
+    TEMPLATES_BRACKET.resize(maximumSize);
+    TEMPLATES_COMBINED.resize(maximumSize);
+  }
+
+  @ApiStatus.Internal
+  public static void setNestingDepth(final int depth) {
+    TEMPLATES_PERCENT.setReplacer(new CharsReplacer(Closure.PERCENT, depth, RESOLVER));
+    TEMPLATES_BRACKET.setReplacer(new CharsReplacer(Closure.BRACKET, depth, RESOLVER));
+    TEMPLATES_COMBINED.setReplacer(
+        new CharsReplacer(EnumSet.allOf(Closure.class), depth, RESOLVER));
+  }
+
+  @ApiStatus.Internal
+  public static void invalidateParseCaches() {
+    TEMPLATES_PERCENT.invalidateAll();
+    TEMPLATES_BRACKET.invalidateAll();
+    TEMPLATES_COMBINED.invalidateAll();
+  }
+
   // === Deprecated API ===
 
   @Deprecated
@@ -32,6 +32,7 @@ import me.clip.placeholderapi.expansion.manager.CloudExpansionManager;
 import me.clip.placeholderapi.expansion.manager.LocalExpansionManager;
 import me.clip.placeholderapi.listeners.ServerLoadEventListener;
 import me.clip.placeholderapi.updatechecker.UpdateChecker;
+import me.clip.placeholderapi.util.MainThreadExecutor;
 import net.kyori.adventure.platform.bukkit.BukkitAudiences;
 import net.kyori.adventure.text.serializer.craftbukkit.MinecraftComponentSerializer;
 import org.bstats.bukkit.Metrics;
@@ -42,6 +43,7 @@ import org.bukkit.command.CommandSender;
 import org.bukkit.command.PluginCommand;
 import org.bukkit.event.HandlerList;
 import org.bukkit.plugin.java.JavaPlugin;
+import org.jetbrains.annotations.ApiStatus;
 import org.jetbrains.annotations.NotNull;
 
 /**
@@ -76,6 +78,8 @@ public final class PlaceholderAPIPlugin extends JavaPlugin {
   private final LocalExpansionManager localExpansionManager = new LocalExpansionManager(this);
   @NotNull
   private final CloudExpansionManager cloudExpansionManager = new CloudExpansionManager(this);
+  @NotNull
+  private final MainThreadExecutor mainThreadExecutor = new MainThreadExecutor(this);
 
   private BukkitAudiences adventure;
 
@@ -111,6 +115,30 @@ public final class PlaceholderAPIPlugin extends JavaPlugin {
     return getInstance().getPlaceholderAPIConfig().booleanFalse();
   }
 
+  /**
+   * Format a whole number with the configurable number format, the same way as the values of
+   * {@link me.clip.placeholderapi.expansion.Numeric} placeholders
+   *
+   * @param value the number to format
+   * @return formatted number
+   */
+  @NotNull
+  public static String formatNumber(final long value) {
+    return getInstance().getLocalExpansionManager().getNumberFormatter().format(value);
+  }
+
+  /**
+   * Format a number with a fraction with the configurable number format, the same way as the
+   * values of {@link me.clip.placeholderapi.expansion.Numeric} placeholders
+   *
+   * @param value the number to format
+   * @return formatted number
+   */
+  @NotNull
+  public static String formatNumber(final double value) {
+    return getInstance().getLocalExpansionManager().getNumberFormatter().format(value);
+  }
+
   /**
    * Get the configurable {@linkplain SimpleDateFormat} object that is used to parse time for
    * generic time based placeholders
@@ -140,6 +168,9 @@ public final class PlaceholderAPIPlugin extends JavaPlugin {
 
   @Override
   public void onEnable() {
+    PlaceholderAPI.resizeParseCaches(config.parseCacheSize());
+    PlaceholderAPI.setNestingDepth(config.nestedPlaceholderDepth());
+
     setupCommand();
     setupMetrics();
     setupExpansions();
@@ -157,6 +188,8 @@ public final class PlaceholderAPIPlugin extends JavaPlugin {
 
   @Override
   public void onDisable() {
+    mainThreadExecutor.drain();
+
     getCloudExpansionManager().kill();
     getLocalExpansionManager().kill();
 
@@ -167,6 +200,8 @@ public final class PlaceholderAPIPlugin extends JavaPlugin {
     adventure.close();
     adventure = null;
 
+    PlaceholderAPI.resizeParseCaches(0);
+
     instance = null;
   }
 
@@ -175,6 +210,9 @@ public final class PlaceholderAPIPlugin extends JavaPlugin {
 
     reloadConfig();
 
+    PlaceholderAPI.resizeParseCaches(config.parseCacheSize());
+    PlaceholderAPI.setNestingDepth(config.nestedPlaceholderDepth());
+
     getLocalExpansionManager().load(sender);
 
     if (config.isCloudEnabled()) {
@@ -194,6 +232,18 @@ public final class PlaceholderAPIPlugin extends JavaPlugin {
     return cloudExpansionManager;
   }
 
+  /**
+   * Executor running tasks on the main server thread, used to request placeholders of expansions
+   * that aren't thread safe when parsing asynchronously
+   *
+   * @return the main thread executor
+   */
+  @ApiStatus.Internal
+  @NotNull
+  public MainThreadExecutor getMainThreadExecutor() {
+    return mainThreadExecutor;
+  }
+
   @NotNull
   public BukkitAudiences getAdventure() {
     if(adventure == null) {
@@ -245,6 +295,7 @@ public final class PlaceholderAPIPlugin extends JavaPlugin {
 
   private void setupExpansions() {
     Bukkit.getPluginManager().registerEvents(getLocalExpansionManager(), this);
+    Bukkit.getScheduler().runTaskTimer(this, getLocalExpansionManager()::tick, 1, 1);
 
     try {
       Class.forName("org.bukkit.event.server.ServerLoadEvent");
@@ -39,6 +39,7 @@ import me.clip.placeholderapi.commands.impl.local.CommandInfo;
 import me.clip.placeholderapi.commands.impl.local.CommandList;
 import me.clip.placeholderapi.commands.impl.local.CommandParse;
 import me.clip.placeholderapi.commands.impl.local.CommandReload;
+import me.clip.placeholderapi.commands.impl.local.CommandStats;
 import me.clip.placeholderapi.commands.impl.local.CommandVersion;
 import me.clip.placeholderapi.util.Msg;
 import org.bukkit.command.Command;
@@ -58,6 +59,7 @@ public final class PlaceholderCommandRouter implements CommandExecutor, TabCompl
       new CommandECloud(),
       new CommandParse(),
       new CommandReload(),
+      new CommandStats(),
       new CommandVersion(),
       new CommandExpansionRegister(),
       new CommandExpansionUnregister());
@@ -20,9 +20,11 @@
 
 package me.clip.placeholderapi.commands.impl.local;
 
+import com.google.common.cache.CacheStats;
 import com.google.common.io.CharStreams;
 import com.google.gson.Gson;
 import com.google.gson.JsonObject;
+import me.clip.placeholderapi.PlaceholderAPI;
 import me.clip.placeholderapi.PlaceholderAPIPlugin;
 import me.clip.placeholderapi.commands.PlaceholderCommand;
 import me.clip.placeholderapi.expansion.PlaceholderExpansion;
@@ -160,6 +162,36 @@ public final class CommandDump extends PlaceholderCommand {
 
     builder.append('\n');
 
+    final CacheStats parseCache = PlaceholderAPI.getParseCacheStats();
+
+    builder.append("Parse Cache: ")
+        .append(PlaceholderAPI.getParseCacheSize())
+        .append(" texts [Hits: ")
+        .append(parseCache.hitCount())
+        .append(", Misses: ")
+        .append(parseCache.missCount())
+        .append(", Evictions: ")
+        .append(parseCache.evictionCount())
+        .append("]\n");
+
+    builder.append("Tick Memo: [Hits: ")
+        .append(plugin.getLocalExpansionManager().getTickMemoHits())
+        .append(", Misses: ")
+        .append(plugin.getLocalExpansionManager().getTickMemoMisses())
+        .append("]\n");
+
+    final CacheStats resultCache = plugin.getLocalExpansionManager().getResultCacheStats();
+
+    builder.append("Result Cache: ")
+        .append(plugin.getLocalExpansionManager().getResultCacheSize())
+        .append(" values [Hits: ")
+        .append(resultCache.hitCount())
+        .append(", Misses: ")
+        .append(resultCache.missCount())
+        .append(", Expirations: ")
+        .append(resultCache.evictionCount())
+        .append("]\n\n");
+
     builder.append("Expansions Directory:")
         .append('\n');
 
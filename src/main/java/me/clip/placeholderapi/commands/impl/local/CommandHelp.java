@@ -63,6 +63,8 @@ public final class CommandHelp extends PlaceholderCommand {
         "  &7&oRegister an expansion by the name of the file",
         "&b/papi &freload",
         "  &7&oReload the config of PAPI",
+        "&b/papi &fstats &9[expansion]",
+        "  &7&oView the statistics of the caches and expansions of PAPI",
         "&b/papi &funregister &9<expansion name>",
         "  &7&oUnregister an expansion by name",
         "&b/papi &fversion",
@@ -0,0 +1,179 @@
+/*
+ * This file is part of PlaceholderAPI
+ *
+ * PlaceholderAPI
+ * Copyright (c) 2015 - 2021 PlaceholderAPI Team
+ *
+ * PlaceholderAPI is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PlaceholderAPI is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package me.clip.placeholderapi.commands.impl.local;
+
+import com.google.common.cache.CacheStats;
+import com.google.common.collect.Maps;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import me.clip.placeholderapi.PlaceholderAPI;
+import me.clip.placeholderapi.PlaceholderAPIPlugin;
+import me.clip.placeholderapi.commands.PlaceholderCommand;
+import me.clip.placeholderapi.expansion.PlaceholderExpansion;
+import me.clip.placeholderapi.expansion.manager.ExpansionMetrics;
+import me.clip.placeholderapi.expansion.manager.LocalExpansionManager;
+import me.clip.placeholderapi.util.Msg;
+import org.bukkit.command.CommandSender;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Unmodifiable;
+
+public final class CommandStats extends PlaceholderCommand {
+
+  /**
+   * How many expansions, or parameter prefixes, are listed at most
+   */
+  private static final int TOP = 10;
+
+
+  public CommandStats() {
+    super("stats");
+  }
+
+
+  @Override
+  public void evaluate(@NotNull final PlaceholderAPIPlugin plugin,
+      @NotNull final CommandSender sender, @NotNull final String alias,
+      @NotNull @Unmodifiable final List<String> params) {
+    final LocalExpansionManager manager = plugin.getLocalExpansionManager();
+
+    if (!params.isEmpty()) {
+      evaluateExpansion(manager, sender, params.get(0));
+      return;
+    }
+
+    final CacheStats parseCache = PlaceholderAPI.getParseCacheStats();
+    final CacheStats resultCache = manager.getResultCacheStats();
+
+    Msg.msg(sender,
+        "&b&lPlaceholderAPI &8- &7Statistics",
+        " ",
+        "&7Parse Cache&8: &f" + PlaceholderAPI.getParseCacheSize() + " &7texts",
+        "  &7Hits&8: &f" + parseCache.hitCount() + " &7Misses&8: &f" + parseCache.missCount()
+            + " &7Evictions&8: &f" + parseCache.evictionCount(),
+        "&7Result Cache&8: &f" + manager.getResultCacheSize() + " &7values",
+        "  &7Hits&8: &f" + resultCache.hitCount() + " &7Misses&8: &f" + resultCache.missCount()
+            + " &7Expirations&8: &f" + resultCache.evictionCount(),
+        "&7Tick Memo&8:",
+        "  &7Hits&8: &f" + manager.getTickMemoHits() + " &7Misses&8: &f"
+            + manager.getTickMemoMisses());
+
+    final List<Map.Entry<String, ExpansionMetrics>> expansions =
+        top(manager.getExpansionMetrics().entrySet().stream()
+            .map(entry -> Maps.immutableEntry(entry.getKey().getIdentifier(), entry.getValue())));
+
+    if (expansions.isEmpty()) {
+      return;
+    }
+
+    final StringBuilder message = new StringBuilder("&7Expansions by total time&8:");
+    for (final Map.Entry<String, ExpansionMetrics> entry : expansions) {
+      appendMetrics(message, entry.getKey(), entry.getValue());
+    }
+
+    Msg.msg(sender, message.toString());
+  }
+
+  private void evaluateExpansion(@NotNull final LocalExpansionManager manager,
+      @NotNull final CommandSender sender, @NotNull final String identifier) {
+    final PlaceholderExpansion expansion = manager.getExpansion(identifier);
+    if (expansion == null) {
+      Msg.msg(sender, "&cThere is no expansion with the identifier: &f" + identifier);
+      return;
+    }
+
+    final ExpansionMetrics metrics = manager.getExpansionMetrics().get(expansion);
+    if (metrics == null) {
+      Msg.msg(sender, "&7Expansion &f" + expansion.getIdentifier() + " &7wasn't requested yet");
+      return;
+    }
+
+    final StringBuilder message = new StringBuilder("&b&lPlaceholderAPI &8- &7Statistics of &f")
+        .append(expansion.getIdentifier()).append('\n');
+    appendMetrics(message, "total", metrics);
+
+    final List<Map.Entry<String, ExpansionMetrics>> prefixes =
+        top(metrics.getPrefixes().entrySet().stream());
+
+    if (!prefixes.isEmpty()) {
+      message.append("\n&7Parameters by total time&8:");
+
+      for (final Map.Entry<String, ExpansionMetrics> entry : prefixes) {
+        appendMetrics(message, entry.getKey() + "_*", entry.getValue());
+      }
+    }
+
+    Msg.msg(sender, message.toString());
+  }
+
+  @Override
+  public void complete(@NotNull final PlaceholderAPIPlugin plugin,
+      @NotNull final CommandSender sender, @NotNull final String alias,
+      @NotNull @Unmodifiable final List<String> params, @NotNull final List<String> suggestions) {
+    if (params.size() > 1) {
+      return;
+    }
+
+    suggestByParameter(PlaceholderAPI.getRegisteredIdentifiers().stream(), suggestions,
+        params.isEmpty() ? null : params.get(0));
+  }
+
+
+  @NotNull
+  private static List<Map.Entry<String, ExpansionMetrics>> top(
+      @NotNull final Stream<Map.Entry<String, ExpansionMetrics>> metrics) {
+    return metrics
+        .sorted(Comparator.comparingLong(
+            (Map.Entry<String, ExpansionMetrics> entry) -> entry.getValue().getTotalNanos())
+            .reversed())
+        .limit(TOP)
+        .collect(Collectors.toList());
+  }
+
+  private static void appendMetrics(@NotNull final StringBuilder builder,
+      @NotNull final String name, @NotNull final ExpansionMetrics metrics) {
+    builder.append("\n  &f").append(name)
+        .append(" &7Calls&8: &f").append(metrics.getCalls())
+        .append(" &7Errors&8: &f").append(metrics.getErrors())
+        .append(" &7Total&8: &f").append(formatNanos(metrics.getTotalNanos()))
+        .append(" &7p50&8: &f").append(formatNanos(metrics.getQuantileNanos(0.5)))
+        .append(" &7p99&8: &f").append(formatNanos(metrics.getQuantileNanos(0.99)));
+  }
+
+  @NotNull
+  private static String formatNanos(final long nanos) {
+    if (nanos < 1_000) {
+      return nanos + "ns";
+    }
+    if (nanos < 1_000_000) {
+      return String.format(Locale.ROOT, "%.1f\u00b5s", nanos / 1_000.0);
+    }
+    if (nanos < 1_000_000_000) {
+      return String.format(Locale.ROOT, "%.1fms", nanos / 1_000_000.0);
+    }
+
+    return String.format(Locale.ROOT, "%.2fs", nanos / 1_000_000_000.0);
+  }
+
+}
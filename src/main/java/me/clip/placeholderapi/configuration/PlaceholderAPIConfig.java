@@ -57,6 +57,55 @@ public final class PlaceholderAPIConfig {
     return plugin.getConfig().getBoolean("debug", false);
   }
 
+  public long slowPlaceholderThreshold() {
+    return Math.max(0, plugin.getConfig().getLong("slow_placeholder_threshold", 0));
+  }
+
+
+  public long parseCacheSize() {
+    return plugin.getConfig().getLong("parse_cache_size", 1000);
+  }
+
+  public int nestedPlaceholderDepth() {
+    return Math.max(0, plugin.getConfig().getInt("nested_placeholder_depth", 0));
+  }
+
+  public boolean expansionMetrics() {
+    return plugin.getConfig().getBoolean("expansion_metrics.enabled", false);
+  }
+
+  public boolean expansionMetricsPerPrefix() {
+    return plugin.getConfig().getBoolean("expansion_metrics.per_prefix", false);
+  }
+
+  public boolean circuitBreaker() {
+    return plugin.getConfig().getBoolean("circuit_breaker.enabled", true);
+  }
+
+  public int circuitBreakerFailures() {
+    return Math.max(1, plugin.getConfig().getInt("circuit_breaker.failures", 5));
+  }
+
+  public long circuitBreakerWindow() {
+    return Math.max(0, plugin.getConfig().getLong("circuit_breaker.window", 10000));
+  }
+
+  public long circuitBreakerSlowCall() {
+    return Math.max(0, plugin.getConfig().getLong("circuit_breaker.slow_call", 0));
+  }
+
+  public long circuitBreakerOpenTime() {
+    return Math.max(0, plugin.getConfig().getLong("circuit_breaker.open_time", 30000));
+  }
+
+  public boolean circuitBreakerRememberValues() {
+    return plugin.getConfig().getBoolean("circuit_breaker.remember_values", false);
+  }
+
+  public boolean circuitBreakerPerPrefix() {
+    return plugin.getConfig().getBoolean("circuit_breaker.per_prefix", false);
+  }
+
 
   public Optional<ExpansionSort> getExpansionSort() {
     final String option = plugin.getConfig()
@@ -78,6 +127,19 @@ public final class PlaceholderAPIConfig {
   }
 
 
+  @NotNull
+  public String integerFormat() {
+    //noinspection ConstantConditions (bad spigot annotation)
+    return plugin.getConfig().getString("number_format.integer", "#,##0");
+  }
+
+  @NotNull
+  public String decimalFormat() {
+    //noinspection ConstantConditions (bad spigot annotation)
+    return plugin.getConfig().getString("number_format.decimal", "#,##0.##");
+  }
+
+
   @NotNull
   public String booleanTrue() {
     //noinspection ConstantConditions (bad spigot annotation)
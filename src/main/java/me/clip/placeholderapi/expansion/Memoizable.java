@@ -0,0 +1,32 @@
+/*
+ * This file is part of PlaceholderAPI
+ *
+ * PlaceholderAPI
+ * Copyright (c) 2015 - 2021 PlaceholderAPI Team
+ *
+ * PlaceholderAPI is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PlaceholderAPI is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package me.clip.placeholderapi.expansion;
+
+/**
+ * This interface allows a class which extends a {@link PlaceholderExpansion} to have the values
+ * of its placeholders reused within the same server tick.
+ * <br>When the same placeholder is requested for the same player more than once during a tick,
+ * only the first request reaches the expansion, all others get the same value. Only implement
+ * this if the values of your placeholders don't change within a tick.
+ */
+public interface Memoizable {
+
+}
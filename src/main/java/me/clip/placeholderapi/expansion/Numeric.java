@@ -0,0 +1,91 @@
+/*
+ * This file is part of PlaceholderAPI
+ *
+ * PlaceholderAPI
+ * Copyright (c) 2015 - 2021 PlaceholderAPI Team
+ *
+ * PlaceholderAPI is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PlaceholderAPI is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package me.clip.placeholderapi.expansion;
+
+import org.bukkit.OfflinePlayer;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * This interface allows a class which extends a {@link PlaceholderExpansion} to return the values
+ * of numeric placeholders as primitive numbers, which PlaceholderAPI formats with the number
+ * formats configured in its config.yml.
+ * <br>Placeholders for which {@link #getNumericKind(PlaceholderParameters)} returns null are
+ * requested through {@link PlaceholderExpansion#onRequest} as usual. Since a number can't say
+ * that its parameters are invalid, {@link #getNumericKind(PlaceholderParameters)} has to return
+ * null for invalid parameters, and only return a kind for placeholders that always have a value.
+ * <br>Only the method of the kinds that are returned has to be implemented.
+ */
+public interface Numeric {
+
+  /**
+   * What kind of number the value of the placeholder with the provided parameters is.
+   *
+   * @param params The parameters of the placeholder
+   * @return The kind of number, or null if the value is not a number or the parameters are
+   *     invalid
+   */
+  @Nullable
+  Kind getNumericKind(@NotNull final PlaceholderParameters params);
+
+  /**
+   * Called for placeholders of the kind {@link Kind#INTEGER}.
+   *
+   * @param player The player the placeholder is requested for, may be null
+   * @param params The parameters of the placeholder
+   * @return The value of the placeholder
+   * @throws IllegalStateException If the expansion returned {@link Kind#INTEGER} without
+   *     implementing this method
+   */
+  default long onLongRequest(@Nullable final OfflinePlayer player,
+      @NotNull final PlaceholderParameters params) {
+    throw new IllegalStateException("Placeholder " + params + " is of the kind " + Kind.INTEGER
+        + ", but onLongRequest is not implemented");
+  }
+
+  /**
+   * Called for placeholders of the kind {@link Kind#DECIMAL}.
+   *
+   * @param player The player the placeholder is requested for, may be null
+   * @param params The parameters of the placeholder
+   * @return The value of the placeholder
+   * @throws IllegalStateException If the expansion returned {@link Kind#DECIMAL} without
+   *     implementing this method
+   */
+  default double onDoubleRequest(@Nullable final OfflinePlayer player,
+      @NotNull final PlaceholderParameters params) {
+    throw new IllegalStateException("Placeholder " + params + " is of the kind " + Kind.DECIMAL
+        + ", but onDoubleRequest is not implemented");
+  }
+
+
+  enum Kind {
+    /**
+     * Whole numbers, requested through {@link #onLongRequest}
+     */
+    INTEGER,
+    /**
+     * Numbers with a fraction, requested through {@link #onDoubleRequest}
+     */
+    DECIMAL
+  }
+
+}
@@ -25,6 +25,7 @@ import java.util.List;
 import me.clip.placeholderapi.PlaceholderAPIPlugin;
 import me.clip.placeholderapi.PlaceholderHook;
 import org.bukkit.Bukkit;
+import org.bukkit.OfflinePlayer;
 import org.bukkit.configuration.ConfigurationSection;
 import org.jetbrains.annotations.ApiStatus;
 import org.jetbrains.annotations.Contract;
@@ -36,6 +37,9 @@ import org.jetbrains.annotations.Nullable;
  * <br>The registration either happens automatically when the jar file containing a
  * class extending this one is located under the {@code PlaceholderAPI/expansions}
  * directory or when the {@link #register()} method is called by said class.
+ * <br>Unless the expansion implements {@link ThreadSafe}, its placeholders are only requested on
+ * the main server thread. With the debug option enabled, requests from other threads are
+ * reported once per expansion.
  */
 public abstract class PlaceholderExpansion extends PlaceholderHook {
 
@@ -95,6 +99,58 @@ public abstract class PlaceholderExpansion extends PlaceholderHook {
   }
 
 
+  /**
+   * Called for every request of one of this expansion's placeholders, with the parameters split
+   * into their {@code _} separated segments.
+   * <br>Override this instead of {@link #onRequest(OfflinePlayer, String)} to avoid splitting the
+   * parameters on every request. By default this calls {@link #onRequest(OfflinePlayer, String)},
+   * so expansions overriding that one keep working as they are.
+   * <br>PlaceholderAPI requests placeholders through this method, but
+   * {@link #onRequest(OfflinePlayer, String)} stays the entry point for code calling expansions
+   * directly, and doesn't call this method. Expansions whose placeholders are also requested that
+   * way have to keep overriding {@link #onRequest(OfflinePlayer, String)} as well.
+   *
+   * @param player The player the placeholder is requested for, may be null
+   * @param params The parameters of the placeholder, everything after the first _
+   * @return The value of the placeholder, or null if the parameters are invalid
+   */
+  @Nullable
+  public String onParametersRequest(@Nullable final OfflinePlayer player,
+      @NotNull final PlaceholderParameters params) {
+    return onRequest(player, params.toString());
+  }
+
+  /**
+   * What the value of the placeholder with the provided parameters depends on.
+   * <br>Expansions providing values that are the same for every player, like the amount of
+   * online players, should override this to return {@link PlaceholderScope#GLOBAL} or
+   * {@link PlaceholderScope#CONSTANT} for the respective parameters, usually by checking their
+   * prefix.
+   *
+   * @param params The parameters of the placeholder, everything after the first _
+   * @return {@link PlaceholderScope#PER_PLAYER} by default
+   */
+  @NotNull
+  public PlaceholderScope getScope(@NotNull final String params) {
+    return PlaceholderScope.PER_PLAYER;
+  }
+
+
+  /**
+   * How long the value of the placeholder with the provided parameters may be reused for the same
+   * player, in milliseconds.
+   * <br>Expansions providing values which are expensive to get, like database or economy queries,
+   * can override this instead of keeping their own cache. The cached values are discarded when
+   * the expansion is unregistered.
+   *
+   * @param params The parameters of the placeholder, everything after the first _
+   * @return time to live of the value in milliseconds, 0 by default which disables caching
+   */
+  public long getCacheTtl(@NotNull final String params) {
+    return 0;
+  }
+
+
   /**
    * Expansions that do not use the ecloud and instead register from the dependency should set this
    * to true to ensure that your placeholder expansion is not unregistered when the papi reload
@@ -0,0 +1,194 @@
+/*
+ * This file is part of PlaceholderAPI
+ *
+ * PlaceholderAPI
+ * Copyright (c) 2015 - 2021 PlaceholderAPI Team
+ *
+ * PlaceholderAPI is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PlaceholderAPI is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package me.clip.placeholderapi.expansion;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * The parameters of a placeholder, with indexed access to their {@code _} separated segments.
+ * <br>The segments are only located the first time one is accessed, and comparing a segment with
+ * {@link #is(int, String)} doesn't create any strings, which makes this a cheaper replacement
+ * for {@code params.split("_")}.
+ * <br>Unlike {@link String#split(String)}, every underscore separates two segments, so
+ * {@code "a__b_"} has the four segments {@code "a"}, {@code ""}, {@code "b"} and {@code ""}.
+ * <br>Instances are immutable and may be shared between threads. Whether a request gets a new
+ * instance or one used before is up to the caller, so expansions must not rely on their identity.
+ */
+public final class PlaceholderParameters {
+
+  @NotNull
+  private static final PlaceholderParameters EMPTY = new PlaceholderParameters("");
+
+  @NotNull
+  private final String params;
+  /**
+   * Start of every segment followed by the end of the last one, located when first needed
+   */
+  @Nullable
+  private volatile int[] bounds;
+
+
+  private PlaceholderParameters(@NotNull final String params) {
+    this.params = params;
+  }
+
+
+  /**
+   * @param params The parameters of a placeholder
+   * @return A view of the parameters
+   */
+  @NotNull
+  public static PlaceholderParameters of(@NotNull final String params) {
+    return params.isEmpty() ? EMPTY : new PlaceholderParameters(params);
+  }
+
+
+  /**
+   * @return The number of segments, at least 1
+   */
+  public int size() {
+    return bounds().length - 1;
+  }
+
+  /**
+   * @return true if the parameters are empty
+   */
+  public boolean isEmpty() {
+    return params.isEmpty();
+  }
+
+  /**
+   * @param index Index of the segment
+   * @return The segment at the index, or null if there are not as many segments
+   */
+  @Nullable
+  public String get(final int index) {
+    final int[] bounds = bounds();
+    if (index < 0 || index >= bounds.length - 1) {
+      return null;
+    }
+
+    return params.substring(bounds[index], end(bounds, index));
+  }
+
+  /**
+   * @param index Index of the first segment
+   * @return All segments starting with the one at the index, joined by their underscores, or null
+   * if there are not as many segments
+   */
+  @Nullable
+  public String from(final int index) {
+    final int[] bounds = bounds();
+    if (index < 0 || index >= bounds.length - 1) {
+      return null;
+    }
+
+    return index == 0 ? params : params.substring(bounds[index]);
+  }
+
+  /**
+   * @param index Index of the segment
+   * @param value The value to compare the segment with
+   * @return true if the segment at the index is equal to the value
+   */
+  public boolean is(final int index, @NotNull final String value) {
+    return matches(index, value, false);
+  }
+
+  /**
+   * @param index Index of the segment
+   * @param value The value to compare the segment with
+   * @return true if the segment at the index is equal to the value, ignoring case
+   */
+  public boolean isIgnoreCase(final int index, @NotNull final String value) {
+    return matches(index, value, true);
+  }
+
+  private boolean matches(final int index, @NotNull final String value, final boolean ignoreCase) {
+    final int[] bounds = bounds();
+    if (index < 0 || index >= bounds.length - 1) {
+      return false;
+    }
+
+    final int start = bounds[index];
+    final int end = end(bounds, index);
+
+    return end - start == value.length()
+        && params.regionMatches(ignoreCase, start, value, 0, value.length());
+  }
+
+  private static int end(@NotNull final int[] bounds, final int index) {
+    // all but the last segment end before the underscore that follows them
+    return index < bounds.length - 2 ? bounds[index + 1] - 1 : bounds[index + 1];
+  }
+
+  @NotNull
+  private int[] bounds() {
+    int[] bounds = this.bounds;
+    if (bounds != null) {
+      return bounds;
+    }
+
+    int count = 1;
+    for (int i = params.indexOf('_'); i != -1; i = params.indexOf('_', i + 1)) {
+      count++;
+    }
+
+    bounds = new int[count + 1];
+
+    int segment = 1;
+    for (int i = params.indexOf('_'); i != -1; i = params.indexOf('_', i + 1)) {
+      bounds[segment++] = i + 1;
+    }
+
+    bounds[count] = params.length();
+    return this.bounds = bounds;
+  }
+
+
+  @Override
+  public boolean equals(final Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+
+    return params.equals(((PlaceholderParameters) o).params);
+  }
+
+  @Override
+  public int hashCode() {
+    return params.hashCode();
+  }
+
+  /**
+   * @return The parameters as they were written
+   */
+  @NotNull
+  @Override
+  public String toString() {
+    return params;
+  }
+
+}
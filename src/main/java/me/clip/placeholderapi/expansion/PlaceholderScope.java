@@ -0,0 +1,46 @@
+/*
+ * This file is part of PlaceholderAPI
+ *
+ * PlaceholderAPI
+ * Copyright (c) 2015 - 2021 PlaceholderAPI Team
+ *
+ * PlaceholderAPI is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PlaceholderAPI is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package me.clip.placeholderapi.expansion;
+
+/**
+ * Describes what the value of a placeholder depends on, which allows PlaceholderAPI to avoid
+ * requesting the same value over and over.
+ *
+ * @see PlaceholderExpansion#getScope(String)
+ */
+public enum PlaceholderScope {
+
+  /**
+   * The value never changes while the expansion is registered, it is only requested once per
+   * registration
+   */
+  CONSTANT,
+  /**
+   * The value is the same for every player at the same moment, it is only requested once when
+   * the same text is rendered for many players at once
+   */
+  GLOBAL,
+  /**
+   * The value depends on the player, it is requested every time. This is the default
+   */
+  PER_PLAYER
+
+}
@@ -0,0 +1,61 @@
+/*
+ * This file is part of PlaceholderAPI
+ *
+ * PlaceholderAPI
+ * Copyright (c) 2015 - 2021 PlaceholderAPI Team
+ *
+ * PlaceholderAPI is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PlaceholderAPI is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package me.clip.placeholderapi.expansion;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import org.bukkit.OfflinePlayer;
+
+/**
+ * Marks a method of a {@link PlaceholderExpansion} as the handler of the placeholders matching a
+ * pattern, instead of dispatching them in {@link PlaceholderExpansion#onRequest}.
+ * <br>The pattern consists of {@code _} separated segments, which are either literals the
+ * parameters have to match exactly, or arguments in curly braces like {@code {currency}}. An
+ * argument at the end of the pattern receives all remaining segments including their
+ * underscores.
+ * <br>The method may take an {@link OfflinePlayer} first, followed by one parameter for each
+ * argument of the pattern. Arguments may be a {@link String}, an int, long, double or boolean, or
+ * their wrappers. Placeholders with arguments that can't be converted are invalid. The value the
+ * method returns is converted to a string, null makes the placeholder invalid.
+ * <pre>{@code
+ * @SubPlaceholder("balance_{currency}")
+ * public double balance(OfflinePlayer player, String currency) { ... }
+ *
+ * @SubPlaceholder("top_{position}_name")
+ * public String topName(int position) { ... }
+ * }</pre>
+ * The handlers are found once when the expansion is registered. Placeholders none of them match
+ * are still passed to {@link PlaceholderExpansion#onRequest}.
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface SubPlaceholder {
+
+  /**
+   * @return The pattern of the placeholders handled by the method, without the identifier
+   */
+  String value();
+
+}
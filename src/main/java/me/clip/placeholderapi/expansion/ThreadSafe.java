@@ -0,0 +1,33 @@
+/*
+ * This file is part of PlaceholderAPI
+ *
+ * PlaceholderAPI
+ * Copyright (c) 2015 - 2021 PlaceholderAPI Team
+ *
+ * PlaceholderAPI is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PlaceholderAPI is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package me.clip.placeholderapi.expansion;
+
+/**
+ * This interface marks a class which extends a {@link PlaceholderExpansion} as safe to request
+ * placeholders from while not on the main server thread.
+ * <br>Implementing this is a promise that {@link PlaceholderExpansion#onRequest} may be called by
+ * any number of threads at the same time, without synchronizing with the main thread.
+ * Placeholders of expansions without it are always requested on the main thread when parsed
+ * asynchronously.
+ */
+public interface ThreadSafe {
+
+}
@@ -0,0 +1,337 @@
+/*
+ * This file is part of PlaceholderAPI
+ *
+ * PlaceholderAPI
+ * Copyright (c) 2015 - 2021 PlaceholderAPI Team
+ *
+ * PlaceholderAPI is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PlaceholderAPI is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package me.clip.placeholderapi.expansion.manager;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import me.clip.placeholderapi.expansion.PlaceholderExpansion;
+import me.clip.placeholderapi.expansion.PlaceholderParameters;
+import me.clip.placeholderapi.replacer.Resolver;
+import org.bukkit.OfflinePlayer;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Stops requesting an expansion for a while once too many of its requests failed or were slow.
+ * <br>The breaker trips when {@link Settings#failures} requests failed within
+ * {@link Settings#windowNanos}. While it is open, requests are answered with the last value the
+ * placeholder had, or with null, which leaves the placeholder as it is. Once the open time passed,
+ * a single request is let through as a probe, which closes the breaker if it succeeds and opens it
+ * again if it doesn't.
+ * <br>Exceptions thrown by the expansion are logged at most once per
+ * {@link #REPORT_INTERVAL_MILLIS}, the ones in between are only counted.
+ */
+final class CircuitBreaker {
+
+  private static final long REPORT_INTERVAL_MILLIS = TimeUnit.MINUTES.toMillis(1);
+  /**
+   * How many parameter prefixes get their own breaker at most, further prefixes share the breaker
+   * of the whole expansion
+   */
+  private static final int MAX_PREFIXES = 64;
+  /**
+   * How many last values are remembered per breaker at most
+   */
+  private static final int MAX_VALUES = 1024;
+
+
+  @NotNull
+  private final Logger logger;
+  @NotNull
+  private final Settings settings;
+  @NotNull
+  private final String name;
+
+  @NotNull
+  private final Map<String, CircuitBreaker> prefixes = new ConcurrentHashMap<>();
+  /**
+   * The last value of every placeholder requested recently, null if they aren't remembered
+   */
+  @Nullable
+  private final Cache<RequestKey, String> values;
+
+  @NotNull
+  private volatile State state = State.CLOSED;
+
+  /**
+   * Times of the most recent failures in nanoseconds, oldest at {@link #next} once it is full,
+   * only accessed while synchronized
+   */
+  @NotNull
+  private final long[] failures;
+  private int next;
+  private int count;
+  /**
+   * Time the breaker was opened at in nanoseconds, only accessed while synchronized
+   */
+  private long openedAt;
+
+  /**
+   * Time of the last logged exception in milliseconds, only accessed while synchronized
+   */
+  private long lastReport = Long.MIN_VALUE / 2;
+  private int suppressed;
+
+
+  CircuitBreaker(@NotNull final Logger logger, @NotNull final Settings settings,
+      @NotNull final String name) {
+    this.logger = logger;
+    this.settings = settings;
+    this.name = name;
+    this.failures = new long[settings.failures];
+    this.values = !settings.rememberValues ? null
+        : CacheBuilder.newBuilder().maximumSize(MAX_VALUES).build();
+  }
+
+
+  /**
+   * The breaker responsible for the placeholder, the one of its parameter prefix if breakers per
+   * prefix are enabled.
+   */
+  @NotNull
+  CircuitBreaker of(@NotNull final PlaceholderParameters params) {
+    if (!settings.perPrefix) {
+      return this;
+    }
+
+    final String prefix = params.get(0);
+
+    CircuitBreaker breaker = prefixes.get(prefix);
+    if (breaker == null) {
+      if (prefixes.size() >= MAX_PREFIXES) {
+        return this;
+      }
+
+      breaker = prefixes.computeIfAbsent(prefix,
+          key -> new CircuitBreaker(logger, settings, name + "_" + key));
+    }
+
+    return breaker;
+  }
+
+  /**
+   * Passes the request to the resolver if the breaker lets it through, and records its outcome.
+   * <br>Exceptions are logged and answered with the {@link #fallback}, errors that aren't
+   * {@link LinkageError}s are passed on after being recorded as a failure.
+   */
+  @Nullable
+  String request(@NotNull final PlaceholderExpansion expansion,
+      @Nullable final OfflinePlayer player, @NotNull final PlaceholderParameters params,
+      @NotNull final Resolver resolver) {
+    if (!allow()) {
+      return fallback(expansion, player, params);
+    }
+
+    final long start = System.nanoTime();
+
+    boolean recorded = false;
+    try {
+      final String value = resolver.resolve(expansion, player, params);
+      recorded = true;
+      success(expansion, player, params, value, System.nanoTime() - start);
+
+      return value;
+    } catch (final Exception | LinkageError ex) {
+      recorded = true;
+      failure(expansion, params, ex);
+
+      return fallback(expansion, player, params);
+    } finally {
+      if (!recorded) {
+        aborted();
+      }
+    }
+  }
+
+  /**
+   * Whether a request may be passed to the expansion. Every permitted request has to be followed
+   * by {@link #success}, {@link #failure} or {@link #aborted}, otherwise a probe never ends.
+   */
+  boolean allow() {
+    final State state = this.state;
+    if (state == State.CLOSED) {
+      return true;
+    }
+    if (state == State.HALF_OPEN) {
+      return false;
+    }
+
+    synchronized (this) {
+      if (this.state != State.OPEN || System.nanoTime() - openedAt < settings.openNanos) {
+        return false;
+      }
+
+      this.state = State.HALF_OPEN;
+      return true;
+    }
+  }
+
+  /**
+   * Records a request that returned, which counts as a failure if it was slow.
+   */
+  void success(@NotNull final PlaceholderExpansion expansion, @Nullable final OfflinePlayer player,
+      @NotNull final PlaceholderParameters params, @Nullable final String value,
+      final long nanos) {
+    if (values != null && value != null) {
+      values.put(new RequestKey(expansion, player, params.toString()), value);
+    }
+
+    if (settings.slowNanos > 0 && nanos >= settings.slowNanos) {
+      failed("was slow (" + TimeUnit.NANOSECONDS.toMillis(nanos) + "ms)");
+      return;
+    }
+
+    if (state == State.HALF_OPEN) {
+      synchronized (this) {
+        if (state == State.HALF_OPEN) {
+          count = 0;
+          state = State.CLOSED;
+          logger.info("Placeholders of " + name + " are requested again, the probe succeeded");
+        }
+      }
+    }
+  }
+
+  /**
+   * Records a request that threw, and logs the exception unless one was logged recently.
+   */
+  void failure(@NotNull final PlaceholderExpansion expansion,
+      @NotNull final PlaceholderParameters params, @NotNull final Throwable ex) {
+    final int suppressed;
+    synchronized (this) {
+      final long now = System.currentTimeMillis();
+      if (now - lastReport < REPORT_INTERVAL_MILLIS) {
+        this.suppressed++;
+        suppressed = -1;
+      } else {
+        suppressed = this.suppressed;
+        this.lastReport = now;
+        this.suppressed = 0;
+      }
+    }
+
+    if (suppressed >= 0) {
+      logger.log(Level.WARNING, "Placeholder %" + expansion.getIdentifier() + "_" + params
+          + "% threw an exception" + (suppressed == 0 ? ""
+          : " (" + suppressed + " exceptions of " + name + " since the last report)"), ex);
+    }
+
+    failed("threw " + ex.getClass().getSimpleName());
+  }
+
+  /**
+   * Records a request that neither returned nor threw an exception, the error it threw is passed
+   * on to the caller and not logged here.
+   */
+  void aborted() {
+    failed("threw an error");
+  }
+
+  /**
+   * The value to answer requests with while the breaker doesn't let them through, null to leave
+   * the placeholder as it is.
+   */
+  @Nullable
+  String fallback(@NotNull final PlaceholderExpansion expansion,
+      @Nullable final OfflinePlayer player, @NotNull final PlaceholderParameters params) {
+    return values == null ? null
+        : values.getIfPresent(new RequestKey(expansion, player, params.toString()));
+  }
+
+  @NotNull
+  State state() {
+    return state;
+  }
+
+  private synchronized void failed(@NotNull final String reason) {
+    final long now = System.nanoTime();
+
+    switch (state) {
+      case OPEN:
+        // a request that started before the breaker opened
+        return;
+      case HALF_OPEN:
+        open(now, "the probe " + reason);
+        return;
+      default:
+        break;
+    }
+
+    failures[next] = now;
+    next = (next + 1) % failures.length;
+    count = Math.min(count + 1, failures.length);
+
+    // once full, the slot after the newest failure holds the oldest one
+    if (count == failures.length && now - failures[next] <= settings.windowNanos) {
+      open(now, failures.length + " requests failed within "
+          + TimeUnit.NANOSECONDS.toMillis(settings.windowNanos) + "ms, the last one " + reason);
+    }
+  }
+
+  private void open(final long now, @NotNull final String reason) {
+    count = 0;
+    openedAt = now;
+    state = State.OPEN;
+
+    logger.warning("Placeholders of " + name + " are not requested for "
+        + TimeUnit.NANOSECONDS.toMillis(settings.openNanos) + "ms, " + reason);
+  }
+
+
+  enum State {
+    CLOSED,
+    OPEN,
+    /**
+     * A probe request is running, the other requests are still not let through
+     */
+    HALF_OPEN
+  }
+
+  /**
+   * The configured thresholds, shared by all breakers
+   */
+  static final class Settings {
+
+    private final int failures;
+    private final long windowNanos;
+    private final long slowNanos;
+    private final long openNanos;
+    private final boolean rememberValues;
+    private final boolean perPrefix;
+
+
+    Settings(final int failures, final long windowMillis, final long slowMillis,
+        final long openMillis, final boolean rememberValues, final boolean perPrefix) {
+      this.failures = Math.max(1, failures);
+      this.windowNanos = TimeUnit.MILLISECONDS.toNanos(windowMillis);
+      this.slowNanos = TimeUnit.MILLISECONDS.toNanos(slowMillis);
+      this.openNanos = TimeUnit.MILLISECONDS.toNanos(openMillis);
+      this.rememberValues = rememberValues;
+      this.perPrefix = perPrefix;
+    }
+  }
+
+}
@@ -0,0 +1,132 @@
+/*
+ * This file is part of PlaceholderAPI
+ *
+ * PlaceholderAPI
+ * Copyright (c) 2015 - 2021 PlaceholderAPI Team
+ *
+ * PlaceholderAPI is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PlaceholderAPI is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package me.clip.placeholderapi.expansion.manager;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import me.clip.placeholderapi.expansion.PlaceholderParameters;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Unmodifiable;
+
+/**
+ * Counts the requests to an expansion, the ones that failed with an exception, and how long they
+ * took.
+ * <br>The counters are striped, so recording from several threads at once doesn't contend.
+ */
+public final class ExpansionMetrics {
+
+  /**
+   * How many parameter prefixes are tracked at most, further prefixes are only counted for the
+   * whole expansion
+   */
+  private static final int MAX_PREFIXES = 64;
+
+
+  @NotNull
+  private final LongAdder calls = new LongAdder();
+  @NotNull
+  private final LongAdder errors = new LongAdder();
+  @NotNull
+  private final LongAdder nanos = new LongAdder();
+  @NotNull
+  private final LatencyHistogram histogram = new LatencyHistogram();
+
+  @NotNull
+  private final Map<String, ExpansionMetrics> prefixes = new ConcurrentHashMap<>();
+
+
+  void record(@NotNull final PlaceholderParameters params, final long nanos,
+      final boolean failed, final boolean perPrefix) {
+    record(nanos, failed);
+
+    if (!perPrefix) {
+      return;
+    }
+
+    final String prefix = params.get(0);
+
+    ExpansionMetrics metrics = prefixes.get(prefix);
+    if (metrics == null) {
+      if (prefixes.size() >= MAX_PREFIXES) {
+        return;
+      }
+
+      metrics = prefixes.computeIfAbsent(prefix, key -> new ExpansionMetrics());
+    }
+
+    metrics.record(nanos, failed);
+  }
+
+  private void record(final long nanos, final boolean failed) {
+    calls.increment();
+    this.nanos.add(nanos);
+    histogram.record(nanos);
+
+    if (failed) {
+      errors.increment();
+    }
+  }
+
+
+  /**
+   * @return The amount of requests
+   */
+  public long getCalls() {
+    return calls.sum();
+  }
+
+  /**
+   * @return The amount of requests that threw an exception
+   */
+  public long getErrors() {
+    return errors.sum();
+  }
+
+  /**
+   * @return The time all requests took together, in nanoseconds
+   */
+  public long getTotalNanos() {
+    return nanos.sum();
+  }
+
+  /**
+   * The duration the given share of requests took at most, accurate to 12.5%.
+   *
+   * @param quantile Share of the requests, between 0 and 1, like 0.99
+   * @return The duration in nanoseconds, or 0 if there were no requests
+   */
+  public long getQuantileNanos(final double quantile) {
+    return histogram.quantile(quantile);
+  }
+
+  /**
+   * @return The metrics of the requests by the first segment of their parameters, empty unless
+   * metrics per prefix are enabled
+   */
+  @NotNull
+  @Unmodifiable
+  public Map<String, ExpansionMetrics> getPrefixes() {
+    return Collections.unmodifiableMap(prefixes);
+  }
+
+}
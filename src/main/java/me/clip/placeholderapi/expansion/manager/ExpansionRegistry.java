@@ -0,0 +1,103 @@
+/*
+ * This file is part of PlaceholderAPI
+ *
+ * PlaceholderAPI
+ * Copyright (c) 2015 - 2021 PlaceholderAPI Team
+ *
+ * PlaceholderAPI is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PlaceholderAPI is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package me.clip.placeholderapi.expansion.manager;
+
+import com.google.common.collect.ImmutableMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import me.clip.placeholderapi.expansion.PlaceholderExpansion;
+import me.clip.placeholderapi.replacer.IdentifierLookup;
+import me.clip.placeholderapi.replacer.IdentifierTrie;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Holds the registered expansions by their identifier.
+ * <br>Reads go to an immutable {@link IdentifierTrie} published through a volatile field, so they
+ * never lock or allocate. Writes are rare, they copy the snapshot and publish a new trie while
+ * holding a lock which only serializes writers.
+ */
+final class ExpansionRegistry implements IdentifierLookup {
+
+  @NotNull
+  private final ReentrantLock writeLock = new ReentrantLock();
+
+  @NotNull
+  private volatile IdentifierTrie snapshot = IdentifierTrie.empty();
+
+
+  @Nullable
+  @Override
+  public PlaceholderExpansion find(@NotNull final CharSequence text, final int start,
+      final int end) {
+    return snapshot.find(text, start, end);
+  }
+
+  @NotNull
+  ImmutableMap<String, PlaceholderExpansion> snapshot() {
+    return snapshot.asMap();
+  }
+
+  /**
+   * @return whether the expansion is the one registered with its identifier
+   */
+  boolean contains(@NotNull final PlaceholderExpansion expansion) {
+    return snapshot.asMap().get(expansion.getIdentifier().toLowerCase()) == expansion;
+  }
+
+  void put(@NotNull final String identifier, @NotNull final PlaceholderExpansion expansion) {
+    writeLock.lock();
+    try {
+      final Map<String, PlaceholderExpansion> copy = new HashMap<>(snapshot.asMap());
+      copy.put(identifier, expansion);
+
+      snapshot = IdentifierTrie.of(copy);
+    } finally {
+      writeLock.unlock();
+    }
+  }
+
+  /**
+   * Removes the expansion registered with the identifier, only if it is the given instance, so an
+   * expansion being unregistered late never removes the one that replaced it.
+   *
+   * @return whether the expansion was removed
+   */
+  boolean remove(@NotNull final String identifier,
+      @NotNull final PlaceholderExpansion expansion) {
+    writeLock.lock();
+    try {
+      if (snapshot.asMap().get(identifier) != expansion) {
+        return false;
+      }
+
+      final Map<String, PlaceholderExpansion> copy = new HashMap<>(snapshot.asMap());
+      copy.remove(identifier);
+
+      snapshot = IdentifierTrie.of(copy);
+      return true;
+    } finally {
+      writeLock.unlock();
+    }
+  }
+
+}
@@ -0,0 +1,117 @@
+/*
+ * This file is part of PlaceholderAPI
+ *
+ * PlaceholderAPI
+ * Copyright (c) 2015 - 2021 PlaceholderAPI Team
+ *
+ * PlaceholderAPI is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PlaceholderAPI is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package me.clip.placeholderapi.expansion.manager;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * A histogram of durations in nanoseconds with log-linear buckets, like an HDR histogram with a
+ * single significant digit.
+ * <br>Every power of two is split into {@value #SUB_BUCKETS} buckets, so a recorded value is
+ * reported at most 12.5% higher than it was. Recording is a couple of bit operations and an
+ * increment of the {@link LongAdder} of the bucket, so threads recording at the same time don't
+ * contend on a single counter. The adders are only created for the buckets that are used.
+ */
+final class LatencyHistogram {
+
+  private static final int SUB_BITS = 3;
+  private static final int SUB_BUCKETS = 1 << SUB_BITS;
+  private static final int BUCKETS = ((64 - SUB_BITS) << SUB_BITS) + SUB_BUCKETS;
+
+
+  @NotNull
+  private final AtomicReferenceArray<LongAdder> counts = new AtomicReferenceArray<>(BUCKETS);
+
+
+  void record(final long nanos) {
+    final int index = index(Math.max(0, nanos));
+
+    LongAdder count = counts.get(index);
+    if (count == null && !counts.compareAndSet(index, null, count = new LongAdder())) {
+      count = counts.get(index);
+    }
+
+    count.increment();
+  }
+
+  /**
+   * The smallest duration at least the given share of all recorded durations were at most.
+   *
+   * @param quantile Share of the recorded durations, between 0 and 1
+   * @return The highest duration of the bucket the quantile falls into, or 0 if nothing was
+   * recorded
+   */
+  long quantile(final double quantile) {
+    final long[] sums = new long[BUCKETS];
+
+    long total = 0;
+    for (int i = 0; i < BUCKETS; i++) {
+      total += sums[i] = sum(counts.get(i));
+    }
+
+    if (total == 0) {
+      return 0;
+    }
+
+    final long target = Math.max(1, (long) Math.ceil(quantile * total));
+
+    long seen = 0;
+    for (int i = 0; i < BUCKETS; i++) {
+      seen += sums[i];
+
+      if (seen >= target) {
+        return highest(i);
+      }
+    }
+
+    return highest(BUCKETS - 1);
+  }
+
+
+  private static long sum(@Nullable final LongAdder count) {
+    return count == null ? 0 : count.sum();
+  }
+
+  static int index(final long value) {
+    if (value < SUB_BUCKETS) {
+      return (int) value;
+    }
+
+    // the highest set bit and the SUB_BITS below it select the bucket
+    final int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BITS;
+    return (shift << SUB_BITS) + (int) (value >>> shift);
+  }
+
+  static long highest(final int index) {
+    if (index < SUB_BUCKETS) {
+      return index;
+    }
+
+    final int shift = (index >>> SUB_BITS) - 1;
+    final long mantissa = index - ((long) shift << SUB_BITS);
+
+    return ((mantissa + 1) << shift) - 1;
+  }
+
+}
@@ -20,20 +20,30 @@
 
 package me.clip.placeholderapi.expansion.manager;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
 import com.google.common.collect.ImmutableSet;
-import com.google.common.collect.Sets;
+import me.clip.placeholderapi.PlaceholderAPI;
 import me.clip.placeholderapi.PlaceholderAPIPlugin;
+import me.clip.placeholderapi.configuration.PlaceholderAPIConfig;
 import me.clip.placeholderapi.events.ExpansionRegisterEvent;
 import me.clip.placeholderapi.events.ExpansionUnregisterEvent;
 import me.clip.placeholderapi.events.ExpansionsLoadedEvent;
 import me.clip.placeholderapi.expansion.*;
 import me.clip.placeholderapi.expansion.cloud.CloudExpansion;
+import me.clip.placeholderapi.replacer.IdentifierLookup;
+import me.clip.placeholderapi.replacer.RelationalResolver;
+import me.clip.placeholderapi.replacer.Resolver;
 import me.clip.placeholderapi.util.FileUtil;
 import me.clip.placeholderapi.util.Futures;
 import me.clip.placeholderapi.util.Msg;
+import me.clip.placeholderapi.util.NumberFormatter;
 import org.bukkit.Bukkit;
+import org.bukkit.OfflinePlayer;
 import org.bukkit.command.CommandSender;
 import org.bukkit.configuration.file.FileConfiguration;
+import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
 import org.bukkit.event.HandlerList;
@@ -51,7 +61,6 @@ import java.util.*;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.locks.ReentrantLock;
 import java.util.logging.Level;
 import java.util.stream.Collectors;
 
@@ -59,6 +68,11 @@ public final class LocalExpansionManager implements Listener {
 
   @NotNull
   private static final String EXPANSIONS_FOLDER_NAME = "expansions";
+  /**
+   * How many values of {@link PlaceholderScope#CONSTANT} placeholders are kept per expansion, the
+   * least recently used ones are requested again once there are more
+   */
+  private static final long MAX_CONSTANTS = 1_000;
 
   @NotNull
   private static final Set<MethodSignature> ABSTRACT_EXPANSION_METHODS = Arrays.stream(PlaceholderExpansion.class.getDeclaredMethods())
@@ -72,13 +86,69 @@ public final class LocalExpansionManager implements Listener {
   private final PlaceholderAPIPlugin plugin;
 
   @NotNull
-  private final Map<String, PlaceholderExpansion> expansions = new ConcurrentHashMap<>();
-  private final ReentrantLock expansionsLock = new ReentrantLock();
+  private final ExpansionRegistry expansions = new ExpansionRegistry();
+  /**
+   * Routers of the registered expansions that have {@link SubPlaceholder} methods
+   */
+  @NotNull
+  private final Map<PlaceholderExpansion, SubPlaceholderRouter> routers =
+      new ConcurrentHashMap<>();
+
+  /**
+   * Values of {@link PlaceholderScope#CONSTANT} placeholders, kept until their expansion is
+   * unregistered
+   */
+  @NotNull
+  private final Map<PlaceholderExpansion, Cache<String, String>> constants =
+      new ConcurrentHashMap<>();
+  @NotNull
+  private final TickMemo tickMemo = new TickMemo();
+  @NotNull
+  private final ResultCache resultCache = new ResultCache(expansions::contains);
+
+  @NotNull
+  private final UnsafeRequestReporter unsafeRequests;
+
+  @NotNull
+  private final Map<PlaceholderExpansion, ExpansionMetrics> metrics = new ConcurrentHashMap<>();
+  /**
+   * Whether the requests are recorded in the metrics of their expansion, and by the prefix of
+   * their parameters, taken from the config when loading
+   */
+  private volatile boolean recordMetrics;
+  private volatile boolean recordMetricsPerPrefix;
+  /**
+   * Reports requests on the main thread that take longer than the configured threshold, null if
+   * the threshold is disabled
+   */
+  @Nullable
+  private volatile SlowRequestWatchdog watchdog;
+
+  /**
+   * Thresholds of the circuit breakers, taken from the config when loading, null if they are
+   * disabled
+   */
+  @Nullable
+  private volatile CircuitBreaker.Settings breakerSettings;
+  @NotNull
+  private final Map<PlaceholderExpansion, CircuitBreaker> breakers = new ConcurrentHashMap<>();
+  /**
+   * {@link #measure} as the resolver passed to the circuit breakers, created once
+   */
+  @NotNull
+  private final Resolver measureResolver = this::measure;
+
+  /**
+   * Formats the values of {@link Numeric} placeholders, taken from the number formats when loading
+   */
+  @NotNull
+  private volatile NumberFormatter numberFormatter = new NumberFormatter("#,##0", "#,##0.##");
 
 
   public LocalExpansionManager(@NotNull final PlaceholderAPIPlugin plugin) {
     this.plugin = plugin;
     this.folder = new File(plugin.getDataFolder(), EXPANSIONS_FOLDER_NAME);
+    this.unsafeRequests = new UnsafeRequestReporter(plugin.getLogger(), Bukkit::isPrimaryThread);
 
     if (!this.folder.exists() && !folder.mkdirs()) {
       plugin.getLogger().log(Level.WARNING, "failed to create expansions folder!");
@@ -86,11 +156,39 @@ public final class LocalExpansionManager implements Listener {
   }
 
   public void load(@NotNull final CommandSender sender) {
+    unsafeRequests.setEnabled(plugin.getPlaceholderAPIConfig().isDebugMode());
+
+    recordMetrics = plugin.getPlaceholderAPIConfig().expansionMetrics();
+    recordMetricsPerPrefix = plugin.getPlaceholderAPIConfig().expansionMetricsPerPrefix();
+
+    final PlaceholderAPIConfig config = plugin.getPlaceholderAPIConfig();
+    breakers.clear();
+    breakerSettings = !config.circuitBreaker() ? null
+        : new CircuitBreaker.Settings(config.circuitBreakerFailures(),
+            config.circuitBreakerWindow(), config.circuitBreakerSlowCall(),
+            config.circuitBreakerOpenTime(), config.circuitBreakerRememberValues(),
+            config.circuitBreakerPerPrefix());
+
+    stopWatchdog();
+
+    if (Bukkit.isPrimaryThread()) {
+      watchdog = SlowRequestWatchdog.start(plugin.getLogger(),
+          plugin.getPlaceholderAPIConfig().slowPlaceholderThreshold(), Thread.currentThread());
+    }
+
+    try {
+      numberFormatter = new NumberFormatter(plugin.getPlaceholderAPIConfig().integerFormat(),
+          plugin.getPlaceholderAPIConfig().decimalFormat());
+    } catch (final IllegalArgumentException ex) {
+      plugin.getLogger().log(Level.WARNING, "configured number format is invalid", ex);
+    }
+
     registerAll(sender);
   }
 
   public void kill() {
     unregisterAll();
+    stopWatchdog();
   }
 
 
@@ -102,57 +200,369 @@ public final class LocalExpansionManager implements Listener {
   @NotNull
   @Unmodifiable
   public Collection<String> getIdentifiers() {
-    expansionsLock.lock();
-    try {
-      return ImmutableSet.copyOf(expansions.keySet());
-    } finally {
-      expansionsLock.unlock();
-    }
+    return expansions.snapshot().keySet();
   }
 
   @NotNull
   @Unmodifiable
   public Collection<PlaceholderExpansion> getExpansions() {
-    expansionsLock.lock();
+    return ImmutableSet.copyOf(expansions.snapshot().values());
+  }
+
+  @Nullable
+  public PlaceholderExpansion getExpansion(@NotNull final String identifier) {
+    return expansions.apply(identifier);
+  }
+
+  /**
+   * Finds registered expansions directly from a range of characters, always using the expansions
+   * registered at the time of the lookup.
+   *
+   * @return The lookup of the registered expansions
+   */
+  @NotNull
+  public IdentifierLookup getExpansionLookup() {
+    return expansions;
+  }
+
+  @NotNull
+  public Optional<PlaceholderExpansion> findExpansionByName(@NotNull final String name) {
+    PlaceholderExpansion bestMatch = null;
+    for (Map.Entry<String, PlaceholderExpansion> entry : expansions.snapshot().entrySet()) {
+      PlaceholderExpansion expansion = entry.getValue();
+      if (expansion.getName().equalsIgnoreCase(name)) {
+        bestMatch = expansion;
+        break;
+      }
+    }
+    return Optional.ofNullable(bestMatch);
+  }
+
+  @NotNull
+  public Optional<PlaceholderExpansion> findExpansionByIdentifier(
+      @NotNull final String identifier) {
+    return Optional.ofNullable(getExpansion(identifier));
+  }
+
+
+  /**
+   * Requests the value of a placeholder from its expansion, reusing the value of
+   * {@link PlaceholderScope#CONSTANT} placeholders, values cached for the
+   * {@link PlaceholderExpansion#getCacheTtl(String) time to live} of the placeholder and, for
+   * {@link Memoizable} expansions, values already requested during the current tick.
+   * <br>While circuit breakers are enabled, exceptions thrown by the expansion aren't passed on,
+   * the placeholder is answered like while the circuit breaker of the expansion is open. Otherwise
+   * they reach the caller.
+   *
+   * @param expansion The expansion of the placeholder
+   * @param player Player to request the value for
+   * @param params The parameters of the placeholder
+   * @return The value of the placeholder, or null if the expansion doesn't provide one
+   */
+  @ApiStatus.Internal
+  @Nullable
+  public String request(@NotNull final PlaceholderExpansion expansion,
+      @Nullable final OfflinePlayer player, @NotNull final PlaceholderParameters params) {
+    if (expansion.getScope(params.toString()) == PlaceholderScope.CONSTANT) {
+      return requestConstant(expansion, player, params);
+    }
+
+    final long ttl = expansion.getCacheTtl(params.toString());
+    if (ttl > 0) {
+      return resultCache.request(expansion, player, params, ttl, this::invoke);
+    }
+
+    if (expansion instanceof Memoizable) {
+      return tickMemo.request(expansion, player, params, this::invoke);
+    }
+
+    return invoke(expansion, player, params);
+  }
+
+  /**
+   * Requests the value of a relational placeholder from its expansion, recording the request in
+   * the metrics and the circuit breaker of the expansion.
+   *
+   * @param expansion The expansion of the placeholder, which is {@link Relational}
+   * @param one First player of the relation
+   * @param two Second player of the relation
+   * @param params The parameters of the placeholder
+   * @return The value of the placeholder, or null if the expansion doesn't provide one
+   */
+  @ApiStatus.Internal
+  @Nullable
+  public String requestRelational(@NotNull final PlaceholderExpansion expansion,
+      @Nullable final Player one, @Nullable final Player two, @NotNull final String params) {
+    final PlaceholderParameters view = PlaceholderParameters.of(params);
+
+    final CircuitBreaker breaker = breaker(expansion, view);
+    if (breaker == null) {
+      return measureRelational(expansion, one, two, params);
+    }
+    if (!breaker.allow()) {
+      return null;
+    }
+
+    final long start = System.nanoTime();
+
+    boolean recorded = false;
     try {
-      return ImmutableSet.copyOf(expansions.values());
+      final String value = measureRelational(expansion, one, two, params);
+      recorded = true;
+      // values of relations aren't remembered, there are too many of them
+      breaker.success(expansion, null, view, null, System.nanoTime() - start);
+
+      return value;
+    } catch (final Exception | LinkageError ex) {
+      recorded = true;
+      breaker.failure(expansion, view, ex);
+
+      return null;
     } finally {
-      expansionsLock.unlock();
+      if (!recorded) {
+        breaker.aborted();
+      }
     }
   }
 
   @Nullable
-  public PlaceholderExpansion getExpansion(@NotNull final String identifier) {
-    expansionsLock.lock();
+  private String measureRelational(@NotNull final PlaceholderExpansion expansion,
+      @Nullable final Player one, @Nullable final Player two, @NotNull final String params) {
+    // only asks for the thread, and allocates the request, while the watchdog is enabled
+    SlowRequestWatchdog watchdog = this.watchdog;
+    if (watchdog != null && !Bukkit.isPrimaryThread()) {
+      watchdog = null;
+    }
+    final SlowRequestWatchdog.Request previous =
+        watchdog == null ? null : watchdog.enter(expansion, params);
+
+    final boolean measure = recordMetrics;
+    final long start = measure ? System.nanoTime() : 0;
+
+    boolean failed = true;
     try {
-      return expansions.get(identifier.toLowerCase());
+      final String value = RelationalResolver.DIRECT.resolve(expansion, one, two, params);
+      failed = false;
+      return value;
     } finally {
-      expansionsLock.unlock();
+      if (watchdog != null) {
+        watchdog.exit(previous);
+      }
+      if (measure) {
+        record(expansion, PlaceholderParameters.of(params), System.nanoTime() - start, failed);
+      }
     }
   }
 
+  /**
+   * Forgets all values remembered for {@link Memoizable} expansions and removes expired cached
+   * values, called at the start of every tick.
+   */
+  @ApiStatus.Internal
+  public void tick() {
+    tickMemo.clear();
+    resultCache.advance();
+  }
+
+  /**
+   * The amount of requests answered with a value already requested during the same tick
+   *
+   * @return amount of requests that didn't reach a {@link Memoizable} expansion
+   */
+  public long getTickMemoHits() {
+    return tickMemo.hits();
+  }
+
+  /**
+   * The amount of requests to {@link Memoizable} expansions that had to be passed to the
+   * expansion
+   *
+   * @return amount of requests that reached a {@link Memoizable} expansion
+   */
+  public long getTickMemoMisses() {
+    return tickMemo.misses();
+  }
+
+  /**
+   * The amount of values currently cached for the time to live of their placeholder
+   *
+   * @return amount of cached values
+   */
+  public long getResultCacheSize() {
+    return resultCache.size();
+  }
+
+  /**
+   * The hit, miss and expiration counters of the values cached for the time to live of their
+   * placeholder
+   *
+   * @return statistics of the result cache
+   */
   @NotNull
-  public Optional<PlaceholderExpansion> findExpansionByName(@NotNull final String name) {
-    expansionsLock.lock();
+  public CacheStats getResultCacheStats() {
+    return resultCache.stats();
+  }
+
+  /**
+   * The formatter used for the values of {@link Numeric} placeholders
+   *
+   * @return the configured number formatter
+   */
+  @NotNull
+  public NumberFormatter getNumberFormatter() {
+    return numberFormatter;
+  }
+
+  /**
+   * The request counts and durations of the expansions requested since they were registered,
+   * empty if metrics are disabled
+   *
+   * @return metrics by expansion
+   */
+  @NotNull
+  @Unmodifiable
+  public Map<PlaceholderExpansion, ExpansionMetrics> getExpansionMetrics() {
+    return Collections.unmodifiableMap(metrics);
+  }
+
+  @Nullable
+  private String requestConstant(@NotNull final PlaceholderExpansion expansion,
+      @Nullable final OfflinePlayer player, @NotNull final PlaceholderParameters params) {
+    final String key = params.toString();
+
+    final Cache<String, String> values = constants.get(expansion);
+    final String cached = values == null ? null : values.getIfPresent(key);
+    if (cached != null) {
+      return cached;
+    }
+
+    final String value = invoke(expansion, player, params);
+    if (value == null) {
+      return null;
+    }
+
+    constants.computeIfAbsent(expansion,
+        ignored -> CacheBuilder.newBuilder().maximumSize(MAX_CONSTANTS).build()).put(key, value);
+
+    // unregistering removes the expansion before its values, so either it sees this value or
+    // this check sees that the expansion is gone
+    if (!expansions.contains(expansion)) {
+      constants.remove(expansion);
+    }
+
+    return value;
+  }
+
+  @Nullable
+  private String invoke(@NotNull final PlaceholderExpansion expansion,
+      @Nullable final OfflinePlayer player, @NotNull final PlaceholderParameters params) {
+    unsafeRequests.check(expansion, params);
+
+    final CircuitBreaker breaker = breaker(expansion, params);
+    if (breaker == null) {
+      return measure(expansion, player, params);
+    }
+
+    return breaker.request(expansion, player, params, measureResolver);
+  }
+
+  /**
+   * Calls the expansion, watched by the watchdog and recorded in the metrics of the expansion.
+   */
+  @Nullable
+  private String measure(@NotNull final PlaceholderExpansion expansion,
+      @Nullable final OfflinePlayer player, @NotNull final PlaceholderParameters params) {
+    // only asks for the thread, and allocates the request, while the watchdog is enabled
+    SlowRequestWatchdog watchdog = this.watchdog;
+    if (watchdog != null && !Bukkit.isPrimaryThread()) {
+      watchdog = null;
+    }
+    final SlowRequestWatchdog.Request previous =
+        watchdog == null ? null : watchdog.enter(expansion, params.toString());
+
+    final boolean measure = recordMetrics;
+    final long start = measure ? System.nanoTime() : 0;
+
+    boolean failed = true;
     try {
-      PlaceholderExpansion bestMatch = null;
-      for (Map.Entry<String, PlaceholderExpansion> entry : expansions.entrySet()) {
-        PlaceholderExpansion expansion = entry.getValue();
-        if (expansion.getName().equalsIgnoreCase(name)) {
-          bestMatch = expansion;
-          break;
-        }
-      }
-      return Optional.ofNullable(bestMatch);
+      final String value = call(expansion, player, params);
+      failed = false;
+      return value;
     } finally {
-      expansionsLock.unlock();
+      if (watchdog != null) {
+        watchdog.exit(previous);
+      }
+      if (measure) {
+        record(expansion, params, System.nanoTime() - start, failed);
+      }
     }
   }
 
-  @NotNull
-  public Optional<PlaceholderExpansion> findExpansionByIdentifier(
-      @NotNull final String identifier) {
-    return Optional.ofNullable(getExpansion(identifier));
+  @Nullable
+  private String call(@NotNull final PlaceholderExpansion expansion,
+      @Nullable final OfflinePlayer player, @NotNull final PlaceholderParameters params) {
+    return call(expansion, player, params, numberFormatter, routers.get(expansion));
+  }
+
+  /**
+   * Passes the request to the expansion: {@link Numeric} placeholders first, then
+   * {@link SubPlaceholder} methods, then {@link PlaceholderExpansion#onParametersRequest}.
+   */
+  @Nullable
+  static String call(@NotNull final PlaceholderExpansion expansion,
+      @Nullable final OfflinePlayer player, @NotNull final PlaceholderParameters params,
+      @NotNull final NumberFormatter numberFormatter,
+      @Nullable final SubPlaceholderRouter router) {
+    if (expansion instanceof Numeric) {
+      final Numeric numeric = (Numeric) expansion;
+      final Numeric.Kind kind = numeric.getNumericKind(params);
+
+      if (kind == Numeric.Kind.INTEGER) {
+        return numberFormatter.format(numeric.onLongRequest(player, params));
+      }
+      if (kind == Numeric.Kind.DECIMAL) {
+        return numberFormatter.format(numeric.onDoubleRequest(player, params));
+      }
+    }
+
+    if (router != null) {
+      final SubPlaceholderRouter.Route route = router.find(params);
+      if (route != null) {
+        return route.invoke(expansion, player, params);
+      }
+    }
+
+    return expansion.onParametersRequest(player, params);
+  }
+
+  /**
+   * The circuit breaker responsible for the placeholder, null if circuit breakers are disabled
+   */
+  @Nullable
+  private CircuitBreaker breaker(@NotNull final PlaceholderExpansion expansion,
+      @NotNull final PlaceholderParameters params) {
+    final CircuitBreaker.Settings settings = breakerSettings;
+    if (settings == null) {
+      return null;
+    }
+
+    CircuitBreaker breaker = breakers.get(expansion);
+    if (breaker == null) {
+      breaker = breakers.computeIfAbsent(expansion,
+          key -> new CircuitBreaker(plugin.getLogger(), settings, key.getIdentifier()));
+    }
+
+    return breaker.of(params);
+  }
+
+  private void record(@NotNull final PlaceholderExpansion expansion,
+      @NotNull final PlaceholderParameters params, final long nanos, final boolean failed) {
+    ExpansionMetrics metrics = this.metrics.get(expansion);
+    if (metrics == null) {
+      metrics = this.metrics.computeIfAbsent(expansion, key -> new ExpansionMetrics());
+    }
+
+    metrics.record(params, nanos, failed, recordMetricsPerPrefix);
   }
 
 
@@ -236,6 +646,16 @@ public final class LocalExpansionManager implements Listener {
       }
     }
 
+    final SubPlaceholderRouter router;
+    try {
+      router = SubPlaceholderRouter.compile(expansion.getClass());
+    } catch (final IllegalArgumentException ex) {
+      plugin.getLogger().log(Level.WARNING,
+          "Failed to register expansion " + expansion.getIdentifier() + ", it has an invalid "
+              + "sub placeholder", ex);
+      return false;
+    }
+
     final PlaceholderExpansion removed = getExpansion(identifier);
     if (removed != null && !removed.unregister()) {
       return false;
@@ -248,13 +668,14 @@ public final class LocalExpansionManager implements Listener {
       return false;
     }
 
-    expansionsLock.lock();
-    try {
-      expansions.put(identifier, expansion);
-    } finally {
-      expansionsLock.unlock();
+    if (router != null) {
+      routers.put(expansion, router);
     }
 
+    expansions.put(identifier, expansion);
+
+    PlaceholderAPI.invalidateParseCaches();
+
     if (expansion instanceof Listener) {
       Bukkit.getPluginManager().registerEvents(((Listener) expansion), plugin);
     }
@@ -281,10 +702,24 @@ public final class LocalExpansionManager implements Listener {
 
   @ApiStatus.Internal
   public boolean unregister(@NotNull final PlaceholderExpansion expansion) {
-    if (expansions.remove(expansion.getIdentifier()) == null) {
+    if (!expansions.remove(expansion.getIdentifier().toLowerCase(), expansion)) {
       return false;
     }
 
+    constants.remove(expansion);
+    routers.remove(expansion);
+    metrics.remove(expansion);
+    breakers.remove(expansion);
+    unsafeRequests.forget(expansion);
+    resultCache.invalidate(expansion);
+
+    final SlowRequestWatchdog watchdog = this.watchdog;
+    if (watchdog != null) {
+      watchdog.forget(expansion);
+    }
+
+    PlaceholderAPI.invalidateParseCaches();
+
     Bukkit.getPluginManager().callEvent(new ExpansionUnregisterEvent(expansion));
 
     if (expansion instanceof Listener) {
@@ -334,8 +769,16 @@ public final class LocalExpansionManager implements Listener {
     });
   }
 
+  private void stopWatchdog() {
+    final SlowRequestWatchdog watchdog = this.watchdog;
+    if (watchdog != null) {
+      this.watchdog = null;
+      watchdog.shutdown();
+    }
+  }
+
   private void unregisterAll() {
-    for (final PlaceholderExpansion expansion : Sets.newHashSet(expansions.values())) {
+    for (final PlaceholderExpansion expansion : expansions.snapshot().values()) {
       if (expansion.persist()) {
         continue;
       }
@@ -0,0 +1,75 @@
+/*
+ * This file is part of PlaceholderAPI
+ *
+ * PlaceholderAPI
+ * Copyright (c) 2015 - 2021 PlaceholderAPI Team
+ *
+ * PlaceholderAPI is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PlaceholderAPI is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package me.clip.placeholderapi.expansion.manager;
+
+import java.util.Objects;
+import java.util.UUID;
+import me.clip.placeholderapi.expansion.PlaceholderExpansion;
+import org.bukkit.OfflinePlayer;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Identifies a single placeholder request, the expansion is compared by identity.
+ */
+final class RequestKey {
+
+  @NotNull
+  final PlaceholderExpansion expansion;
+  @Nullable
+  final UUID player;
+  @NotNull
+  final String params;
+
+  private final int hash;
+
+
+  RequestKey(@NotNull final PlaceholderExpansion expansion, @Nullable final OfflinePlayer player,
+      @NotNull final String params) {
+    this.expansion = expansion;
+    this.player = player == null ? null : player.getUniqueId();
+    this.params = params;
+    this.hash = 31 * (31 * System.identityHashCode(expansion) + Objects.hashCode(this.player))
+        + params.hashCode();
+  }
+
+
+  @Override
+  public boolean equals(final Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof RequestKey)) {
+      return false;
+    }
+
+    final RequestKey key = (RequestKey) o;
+
+    return expansion == key.expansion && Objects.equals(player, key.player)
+        && params.equals(key.params);
+  }
+
+  @Override
+  public int hashCode() {
+    return hash;
+  }
+
+}
@@ -0,0 +1,224 @@
+/*
+ * This file is part of PlaceholderAPI
+ *
+ * PlaceholderAPI
+ * Copyright (c) 2015 - 2021 PlaceholderAPI Team
+ *
+ * PlaceholderAPI is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PlaceholderAPI is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package me.clip.placeholderapi.expansion.manager;
+
+import com.google.common.cache.CacheStats;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
+import me.clip.placeholderapi.expansion.PlaceholderExpansion;
+import me.clip.placeholderapi.expansion.PlaceholderParameters;
+import me.clip.placeholderapi.replacer.Resolver;
+import org.bukkit.OfflinePlayer;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Keeps the values of placeholders for the time to live declared by their expansion.
+ * <br>Expired values are never returned, they are removed by a hashed timer wheel: every value is
+ * put into the bucket of the wheel slot its deadline falls into, and every {@link #advance()} only
+ * looks at the buckets of the slots that passed since the last one, instead of at all values.
+ *
+ * @see PlaceholderExpansion#getCacheTtl(String)
+ */
+final class ResultCache {
+
+  /**
+   * The duration of one slot of the wheel in milliseconds, one server tick
+   */
+  private static final long SLOT_MILLIS = 50;
+  /**
+   * The amount of slots of the wheel, must be a power of 2. Values living longer than one
+   * rotation are looked at again once per rotation until they expire.
+   */
+  private static final int SLOTS = 512;
+  /**
+   * How many values are kept at most, further values aren't cached until others expired
+   */
+  static final int MAX_ENTRIES = 50_000;
+
+  @NotNull
+  private final Map<RequestKey, Entry> entries = new ConcurrentHashMap<>();
+  @NotNull
+  private final Queue<Entry>[] wheel;
+
+  @NotNull
+  private final LongAdder hits = new LongAdder();
+  @NotNull
+  private final LongAdder misses = new LongAdder();
+  @NotNull
+  private final LongAdder expirations = new LongAdder();
+
+  /**
+   * Whether an expansion is still registered, values of unregistered expansions aren't kept
+   */
+  @NotNull
+  private final Predicate<PlaceholderExpansion> registered;
+  /**
+   * The current time in milliseconds
+   */
+  @NotNull
+  private final LongSupplier clock;
+  /**
+   * The first slot {@link #advance()} hasn't looked at yet, only accessed while synchronized
+   */
+  private long cursor;
+
+
+  ResultCache(@NotNull final Predicate<PlaceholderExpansion> registered) {
+    this(registered, () -> TimeUnit.NANOSECONDS.toMillis(System.nanoTime()));
+  }
+
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  ResultCache(@NotNull final Predicate<PlaceholderExpansion> registered,
+      @NotNull final LongSupplier clock) {
+    this.registered = registered;
+    this.clock = clock;
+    this.cursor = slot(clock.getAsLong());
+
+    this.wheel = new Queue[SLOTS];
+    for (int i = 0; i < SLOTS; i++) {
+      wheel[i] = new ConcurrentLinkedQueue<>();
+    }
+  }
+
+
+  @Nullable
+  String request(@NotNull final PlaceholderExpansion expansion,
+      @Nullable final OfflinePlayer player, @NotNull final PlaceholderParameters params,
+      final long ttl, @NotNull final Resolver resolver) {
+    final RequestKey key = new RequestKey(expansion, player, params.toString());
+    final long now = now();
+
+    final Entry cached = entries.get(key);
+    if (cached != null && cached.deadline > now) {
+      hits.increment();
+      return cached.value;
+    }
+
+    misses.increment();
+
+    final String value = resolver.resolve(expansion, player, params);
+    if (value == null || (cached == null && entries.size() >= MAX_ENTRIES)) {
+      return value;
+    }
+
+    // a huge time to live must not overflow into the past
+    final long deadline = ttl > Long.MAX_VALUE - now ? Long.MAX_VALUE : now + ttl;
+    final Entry entry = new Entry(key, value, deadline);
+    final Queue<Entry> bucket = wheel[(int) (slot(entry.deadline) & (SLOTS - 1))];
+
+    entries.put(key, entry);
+    bucket.add(entry);
+
+    // unregistering removes the expansion before invalidating its values, so either the
+    // invalidation sees this value or this check sees that the expansion is gone
+    if (!registered.test(expansion)) {
+      entries.remove(key, entry);
+      bucket.remove(entry);
+    }
+
+    return value;
+  }
+
+  /**
+   * Removes the expired values of all slots that passed since the last call.
+   */
+  synchronized void advance() {
+    final long now = now();
+    final long current = slot(now);
+
+    for (long slot = Math.max(cursor, current - SLOTS); slot < current; slot++) {
+      final Iterator<Entry> iterator = wheel[(int) (slot & (SLOTS - 1))].iterator();
+
+      while (iterator.hasNext()) {
+        final Entry entry = iterator.next();
+        if (entry.deadline > now) {
+          continue;
+        }
+
+        iterator.remove();
+
+        if (entries.remove(entry.key, entry)) {
+          expirations.increment();
+        }
+      }
+    }
+
+    cursor = current;
+  }
+
+  /**
+   * Discards all values of the provided expansion.
+   *
+   * @param expansion The expansion to discard the values of
+   */
+  void invalidate(@NotNull final PlaceholderExpansion expansion) {
+    entries.keySet().removeIf(key -> key.expansion == expansion);
+
+    for (final Queue<Entry> bucket : wheel) {
+      bucket.removeIf(entry -> entry.key.expansion == expansion);
+    }
+  }
+
+  long size() {
+    return entries.size();
+  }
+
+  @NotNull
+  CacheStats stats() {
+    return new CacheStats(hits.sum(), misses.sum(), 0, 0, 0, expirations.sum());
+  }
+
+  private long now() {
+    return clock.getAsLong();
+  }
+
+  private static long slot(final long millis) {
+    return millis / SLOT_MILLIS;
+  }
+
+
+  private static final class Entry {
+
+    @NotNull
+    private final RequestKey key;
+    @NotNull
+    private final String value;
+
+    private final long deadline;
+
+
+    private Entry(@NotNull final RequestKey key, @NotNull final String value,
+        final long deadline) {
+      this.key = key;
+      this.value = value;
+      this.deadline = deadline;
+    }
+  }
+
+}
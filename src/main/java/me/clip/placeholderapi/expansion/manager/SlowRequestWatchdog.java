@@ -0,0 +1,282 @@
+/*
+ * This file is part of PlaceholderAPI
+ *
+ * PlaceholderAPI
+ * Copyright (c) 2015 - 2021 PlaceholderAPI Team
+ *
+ * PlaceholderAPI is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PlaceholderAPI is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package me.clip.placeholderapi.expansion.manager;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import me.clip.placeholderapi.expansion.PlaceholderExpansion;
+import org.bukkit.Bukkit;
+import org.bukkit.plugin.Plugin;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Watches the requests made on the main thread, and reports the ones that take longer than the
+ * threshold while they are still running.
+ * <br>The main thread only publishes the request it is in, a separate thread samples it a few
+ * times per threshold and logs the stack of the main thread once a request is over it. Each
+ * expansion is reported at most once per {@link #REPORT_INTERVAL_MILLIS}, the reports in between
+ * are only counted.
+ */
+final class SlowRequestWatchdog {
+
+  private static final long REPORT_INTERVAL_MILLIS = TimeUnit.MINUTES.toMillis(1);
+  private static final String PACKAGE = "me.clip.placeholderapi.";
+
+
+  @NotNull
+  private final Logger logger;
+  private final long thresholdNanos;
+  @NotNull
+  private final Thread thread;
+  /**
+   * The current time in milliseconds, used for the report interval
+   */
+  @NotNull
+  private final LongSupplier clock;
+  /**
+   * The names of the loaded plugins by the package of their main class
+   */
+  @NotNull
+  private final Supplier<Map<String, String>> plugins;
+
+  @Nullable
+  private ScheduledExecutorService sampler;
+  @NotNull
+  private final Map<PlaceholderExpansion, Report> reports = new ConcurrentHashMap<>();
+
+  /**
+   * The request the watched thread is currently in, null if it isn't in one
+   */
+  @Nullable
+  private volatile Request current;
+
+
+  SlowRequestWatchdog(@NotNull final Logger logger, final long thresholdMillis,
+      @NotNull final Thread thread, @NotNull final LongSupplier clock,
+      @NotNull final Supplier<Map<String, String>> plugins) {
+    this.logger = logger;
+    this.thresholdNanos = TimeUnit.MILLISECONDS.toNanos(thresholdMillis);
+    this.thread = thread;
+    this.clock = clock;
+    this.plugins = plugins;
+  }
+
+
+  /**
+   * Starts watching the requests of the thread on a separate sampling thread.
+   *
+   * @param thresholdMillis How long a request may take before it is reported, 0 or less to not
+   * watch at all
+   * @return The started watchdog, or null if the threshold disables it
+   */
+  @Nullable
+  static SlowRequestWatchdog start(@NotNull final Logger logger, final long thresholdMillis,
+      @NotNull final Thread thread) {
+    if (thresholdMillis <= 0) {
+      return null;
+    }
+
+    final SlowRequestWatchdog watchdog = new SlowRequestWatchdog(logger, thresholdMillis, thread,
+        System::currentTimeMillis, SlowRequestWatchdog::pluginPackages);
+
+    final ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor(
+        new ThreadFactoryBuilder().setNameFormat("placeholderapi-watchdog").setDaemon(true)
+            .build());
+
+    final long period = Math.max(1, thresholdMillis / 4);
+    sampler.scheduleAtFixedRate(watchdog::sample, period, period, TimeUnit.MILLISECONDS);
+
+    watchdog.sampler = sampler;
+    return watchdog;
+  }
+
+
+  /**
+   * Marks the start of a request on the watched thread.
+   *
+   * @return The request the thread was in before, which has to be passed to {@link #exit}
+   */
+  @Nullable
+  Request enter(@NotNull final PlaceholderExpansion expansion, @NotNull final String params) {
+    final Request previous = current;
+    current = new Request(expansion, params, System.nanoTime());
+
+    return previous;
+  }
+
+  /**
+   * Marks the end of the current request on the watched thread.
+   *
+   * @param previous The request returned by {@link #enter}
+   */
+  void exit(@Nullable final Request previous) {
+    current = previous;
+  }
+
+  void forget(@NotNull final PlaceholderExpansion expansion) {
+    reports.remove(expansion);
+  }
+
+  void shutdown() {
+    if (sampler != null) {
+      sampler.shutdownNow();
+    }
+    reports.clear();
+  }
+
+  /**
+   * Reports the current request if it is over the threshold, called by the sampling thread.
+   */
+  void sample() {
+    final Request request = current;
+    if (request == null || request.reported) {
+      return;
+    }
+
+    final long elapsed = System.nanoTime() - request.start;
+    if (elapsed < thresholdNanos) {
+      return;
+    }
+
+    final StackTraceElement[] stack = thread.getStackTrace();
+
+    // the request may have finished while the stack was taken
+    if (current != request) {
+      return;
+    }
+
+    request.reported = true;
+
+    final Report report = reports.computeIfAbsent(request.expansion, key -> new Report());
+    final long now = clock.getAsLong();
+
+    if (now - report.last < REPORT_INTERVAL_MILLIS) {
+      report.suppressed++;
+      return;
+    }
+
+    final int suppressed = report.suppressed;
+    report.last = now;
+    report.suppressed = 0;
+
+    final IllegalStateException sampled =
+        new IllegalStateException("stack of the main thread while the placeholder was requested");
+    sampled.setStackTrace(stack);
+
+    logger.log(Level.WARNING, "Placeholder %" + request.expansion.getIdentifier() + "_"
+        + request.params + "% has been blocking the main thread for "
+        + TimeUnit.NANOSECONDS.toMillis(elapsed) + "ms, requested by "
+        + findCaller(stack, plugins.get())
+        + (suppressed == 0 ? ""
+        : " (" + suppressed + " slow requests of this expansion since the last report)"),
+        sampled);
+  }
+
+  /**
+   * Finds the code that asked PlaceholderAPI for the placeholder, the first frame after the
+   * outermost frame of PlaceholderAPI itself, and the plugin it most likely belongs to.
+   */
+  @NotNull
+  static String findCaller(@NotNull final StackTraceElement[] stack,
+      @NotNull final Map<String, String> plugins) {
+    int outermost = -1;
+    for (int i = 0; i < stack.length; i++) {
+      if (stack[i].getClassName().startsWith(PACKAGE)) {
+        outermost = i;
+      }
+    }
+
+    if (outermost == -1 || outermost + 1 >= stack.length) {
+      return "unknown";
+    }
+
+    final StackTraceElement caller = stack[outermost + 1];
+    final String location = caller.getClassName() + "." + caller.getMethodName();
+
+    for (final Map.Entry<String, String> plugin : plugins.entrySet()) {
+      if (caller.getClassName().startsWith(plugin.getKey() + ".")) {
+        return plugin.getValue() + " (" + location + ")";
+      }
+    }
+
+    return location;
+  }
+
+  @NotNull
+  private static Map<String, String> pluginPackages() {
+    final Map<String, String> packages = new HashMap<>();
+
+    for (final Plugin plugin : Bukkit.getPluginManager().getPlugins()) {
+      final Package pluginPackage = plugin.getClass().getPackage();
+      if (pluginPackage != null) {
+        packages.put(pluginPackage.getName(), plugin.getName());
+      }
+    }
+
+    return packages;
+  }
+
+
+  static final class Request {
+
+    @NotNull
+    private final PlaceholderExpansion expansion;
+    @NotNull
+    private final String params;
+    private final long start;
+
+    /**
+     * Only accessed by the sampling thread
+     */
+    private boolean reported;
+
+
+    private Request(@NotNull final PlaceholderExpansion expansion, @NotNull final String params,
+        final long start) {
+      this.expansion = expansion;
+      this.params = params;
+      this.start = start;
+    }
+  }
+
+  /**
+   * Only accessed by the sampling thread
+   */
+  private static final class Report {
+
+    /**
+     * Time of the last report in milliseconds
+     */
+    private long last = Long.MIN_VALUE / 2;
+    private int suppressed;
+  }
+
+}
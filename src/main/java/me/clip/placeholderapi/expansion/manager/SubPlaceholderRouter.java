@@ -0,0 +1,380 @@
+/*
+ * This file is part of PlaceholderAPI
+ *
+ * PlaceholderAPI
+ * Copyright (c) 2015 - 2021 PlaceholderAPI Team
+ *
+ * PlaceholderAPI is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PlaceholderAPI is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package me.clip.placeholderapi.expansion.manager;
+
+import com.google.common.collect.ImmutableMap;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import me.clip.placeholderapi.expansion.PlaceholderExpansion;
+import me.clip.placeholderapi.expansion.PlaceholderParameters;
+import me.clip.placeholderapi.expansion.SubPlaceholder;
+import org.bukkit.OfflinePlayer;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Dispatches the placeholders of an expansion to its {@link SubPlaceholder} methods.
+ * <br>The patterns are compiled into a trie over their segments, so finding the handler of a
+ * placeholder takes one hash lookup per segment no matter how many handlers there are. Handlers
+ * are called through method handles which already convert the arguments to the types the
+ * method takes.
+ */
+final class SubPlaceholderRouter {
+
+  @NotNull
+  private static final MethodHandle STRINGIFY;
+  @NotNull
+  private static final MethodHandle INVALID_ARGUMENT;
+  @NotNull
+  private static final Map<Class<?>, MethodHandle> CONVERTERS;
+
+  static {
+    final MethodHandles.Lookup lookup = MethodHandles.lookup();
+
+    try {
+      STRINGIFY = lookup.findStatic(SubPlaceholderRouter.class, "stringify",
+          MethodType.methodType(String.class, Object.class));
+      INVALID_ARGUMENT = lookup.findStatic(SubPlaceholderRouter.class, "invalidArgument",
+          MethodType.methodType(Object.class, NumberFormatException.class));
+
+      CONVERTERS = ImmutableMap.<Class<?>, MethodHandle>builder()
+          .put(int.class, parser(lookup, Integer.class, "parseInt", int.class))
+          .put(Integer.class, parser(lookup, Integer.class, "valueOf", Integer.class))
+          .put(long.class, parser(lookup, Long.class, "parseLong", long.class))
+          .put(Long.class, parser(lookup, Long.class, "valueOf", Long.class))
+          .put(double.class, parser(lookup, Double.class, "parseDouble", double.class))
+          .put(Double.class, parser(lookup, Double.class, "valueOf", Double.class))
+          .put(boolean.class, parser(lookup, Boolean.class, "parseBoolean", boolean.class))
+          .put(Boolean.class, parser(lookup, Boolean.class, "valueOf", Boolean.class))
+          .build();
+    } catch (final NoSuchMethodException | IllegalAccessException ex) {
+      throw new ExceptionInInitializerError(ex);
+    }
+  }
+
+  @NotNull
+  private final Node root = new Node();
+
+
+  private SubPlaceholderRouter() {
+  }
+
+
+  /**
+   * Compiles the {@link SubPlaceholder} methods of an expansion class and its super classes.
+   *
+   * @param type The class of the expansion
+   * @return The router, or null if the class has no handlers
+   * @throws IllegalArgumentException if a pattern or a method is invalid
+   */
+  @Nullable
+  static SubPlaceholderRouter compile(@NotNull final Class<? extends PlaceholderExpansion> type) {
+    SubPlaceholderRouter router = null;
+
+    // sub classes come first, so their handlers replace the ones they override
+    for (Class<?> clazz = type; clazz != PlaceholderExpansion.class;
+        clazz = clazz.getSuperclass()) {
+      for (final Method method : clazz.getDeclaredMethods()) {
+        final SubPlaceholder annotation = method.getAnnotation(SubPlaceholder.class);
+        if (annotation == null) {
+          continue;
+        }
+
+        if (router == null) {
+          router = new SubPlaceholderRouter();
+        }
+
+        router.add(annotation.value(), method);
+      }
+    }
+
+    return router;
+  }
+
+
+  /**
+   * @param params The parameters of a placeholder
+   * @return The handler of the placeholder, or null if no pattern matches
+   */
+  @Nullable
+  Route find(@NotNull final PlaceholderParameters params) {
+    return match(root, params, 0);
+  }
+
+  private void add(@NotNull final String pattern, @NotNull final Method method) {
+    final String[] segments = pattern.split("_", -1);
+
+    final int[] arguments = new int[segments.length];
+    int count = 0;
+
+    for (int i = 0; i < segments.length; i++) {
+      if (isArgument(segments[i])) {
+        arguments[count++] = i;
+      }
+    }
+
+    final boolean tail = isArgument(segments[segments.length - 1]);
+    final Route route = new Route(pattern, handle(pattern, method, count),
+        Arrays.copyOf(arguments, count), tail, method.getDeclaringClass());
+
+    Node node = root;
+    for (int i = 0; i < segments.length - 1; i++) {
+      node = isArgument(segments[i]) ? node.argument() : node.literal(segments[i]);
+    }
+
+    if (tail) {
+      node.tail = merge(node.tail, route);
+    } else {
+      node = node.literal(segments[segments.length - 1]);
+      node.route = merge(node.route, route);
+    }
+  }
+
+  @NotNull
+  private static Route merge(@Nullable final Route existing, @NotNull final Route route) {
+    if (existing == null) {
+      return route;
+    }
+
+    if (existing.owner == route.owner) {
+      throw new IllegalArgumentException(
+          "patterns " + existing.pattern + " and " + route.pattern + " of " + route.owner.getName()
+              + " match the same placeholders");
+    }
+
+    return existing;
+  }
+
+  @NotNull
+  private static MethodHandle handle(@NotNull final String pattern, @NotNull final Method method,
+      final int arguments) {
+    if (Modifier.isStatic(method.getModifiers()) || method.getReturnType() == void.class) {
+      throw new IllegalArgumentException("handler " + method.getName() + " of pattern " + pattern
+          + " has to be an instance method returning a value");
+    }
+
+    final Class<?>[] parameters = method.getParameterTypes();
+    final int offset = parameters.length > 0 && parameters[0] == OfflinePlayer.class ? 1 : 0;
+
+    if (parameters.length - offset != arguments) {
+      throw new IllegalArgumentException("handler " + method.getName() + " of pattern " + pattern
+          + " has to take " + arguments + " arguments");
+    }
+
+    MethodHandle handle;
+    try {
+      method.setAccessible(true);
+      handle = MethodHandles.lookup().unreflect(method);
+    } catch (final IllegalAccessException | SecurityException ex) {
+      throw new IllegalArgumentException("handler " + method.getName() + " is not accessible", ex);
+    }
+
+    for (int i = offset; i < parameters.length; i++) {
+      if (parameters[i] == String.class) {
+        continue;
+      }
+
+      final MethodHandle converter = CONVERTERS.get(parameters[i]);
+      if (converter == null) {
+        throw new IllegalArgumentException("handler " + method.getName() + " of pattern " + pattern
+            + " takes an unsupported argument of type " + parameters[i].getName());
+      }
+
+      handle = MethodHandles.filterArguments(handle, 1 + i, converter);
+    }
+
+    if (offset == 0) {
+      handle = MethodHandles.dropArguments(handle, 1, OfflinePlayer.class);
+    }
+
+    handle = MethodHandles.filterReturnValue(
+        handle.asType(handle.type().changeReturnType(Object.class)), STRINGIFY);
+
+    final Class<?>[] types = new Class<?>[2 + arguments];
+    types[0] = PlaceholderExpansion.class;
+    types[1] = OfflinePlayer.class;
+    Arrays.fill(types, 2, types.length, String.class);
+
+    return handle.asType(MethodType.methodType(String.class, types))
+        .asSpreader(String[].class, arguments);
+  }
+
+  @Nullable
+  private static Route match(@NotNull final Node node, @NotNull final PlaceholderParameters params,
+      final int index) {
+    if (index == params.size()) {
+      return node.route;
+    }
+
+    final Node literal = node.literals.get(params.get(index));
+    if (literal != null) {
+      final Route route = match(literal, params, index + 1);
+      if (route != null) {
+        return route;
+      }
+    }
+
+    if (node.argument != null) {
+      final Route route = match(node.argument, params, index + 1);
+      if (route != null) {
+        return route;
+      }
+    }
+
+    return node.tail;
+  }
+
+  private static boolean isArgument(@NotNull final String segment) {
+    return segment.length() >= 2 && segment.charAt(0) == '{'
+        && segment.charAt(segment.length() - 1) == '}';
+  }
+
+  @NotNull
+  private static MethodHandle parser(@NotNull final MethodHandles.Lookup lookup,
+      @NotNull final Class<?> owner, @NotNull final String name, @NotNull final Class<?> type)
+      throws NoSuchMethodException, IllegalAccessException {
+    final MethodHandle parser =
+        lookup.findStatic(owner, name, MethodType.methodType(type, String.class));
+
+    // only failures of the conversion make the placeholder invalid, not the ones of the handler
+    return MethodHandles.catchException(parser, NumberFormatException.class,
+        INVALID_ARGUMENT.asType(MethodType.methodType(type, NumberFormatException.class)));
+  }
+
+  @NotNull
+  private static Object invalidArgument(@NotNull final NumberFormatException ex) {
+    throw InvalidArgumentException.INSTANCE;
+  }
+
+  @Nullable
+  private static String stringify(@Nullable final Object value) {
+    return value == null ? null : value.toString();
+  }
+
+
+  static final class Route {
+
+    @NotNull
+    private final String pattern;
+    @NotNull
+    private final MethodHandle handle;
+    /**
+     * Index of the segment of every argument, the last one takes all remaining segments if tail
+     */
+    @NotNull
+    private final int[] arguments;
+    private final boolean tail;
+    @NotNull
+    private final Class<?> owner;
+
+
+    private Route(@NotNull final String pattern, @NotNull final MethodHandle handle,
+        @NotNull final int[] arguments, final boolean tail, @NotNull final Class<?> owner) {
+      this.pattern = pattern;
+      this.handle = handle;
+      this.arguments = arguments;
+      this.tail = tail;
+      this.owner = owner;
+    }
+
+
+    /**
+     * Calls the handler with the arguments of the provided parameters.
+     *
+     * @return The value of the placeholder, or null if the handler returned null or an argument
+     * couldn't be converted
+     */
+    @Nullable
+    String invoke(@NotNull final PlaceholderExpansion expansion,
+        @Nullable final OfflinePlayer player, @NotNull final PlaceholderParameters params) {
+      final String[] values = new String[arguments.length];
+      for (int i = 0; i < arguments.length; i++) {
+        values[i] = tail && i == arguments.length - 1 ? params.from(arguments[i])
+            : params.get(arguments[i]);
+      }
+
+      try {
+        return (String) handle.invokeExact(expansion, player, values);
+      } catch (final InvalidArgumentException ex) {
+        return null;
+      } catch (final RuntimeException | Error ex) {
+        throw ex;
+      } catch (final Throwable ex) {
+        throw new IllegalStateException("handler of pattern " + pattern + " failed", ex);
+      }
+    }
+  }
+
+  /**
+   * Thrown when an argument can't be converted to the type the handler takes, without a stack
+   * trace since it is thrown for every invalid placeholder
+   */
+  private static final class InvalidArgumentException extends RuntimeException {
+
+    @NotNull
+    private static final InvalidArgumentException INSTANCE = new InvalidArgumentException();
+
+
+    private InvalidArgumentException() {
+      super("argument can't be converted", null, false, false);
+    }
+  }
+
+  private static final class Node {
+
+    @NotNull
+    private final Map<String, Node> literals = new HashMap<>();
+    @Nullable
+    private Node argument;
+    /**
+     * Handler of placeholders ending at this node
+     */
+    @Nullable
+    private Route route;
+    /**
+     * Handler whose last argument starts at this node
+     */
+    @Nullable
+    private Route tail;
+
+
+    @NotNull
+    private Node literal(@NotNull final String segment) {
+      return literals.computeIfAbsent(segment, key -> new Node());
+    }
+
+    @NotNull
+    private Node argument() {
+      if (argument == null) {
+        argument = new Node();
+      }
+
+      return argument;
+    }
+  }
+
+}
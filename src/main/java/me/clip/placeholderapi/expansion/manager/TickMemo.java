@@ -0,0 +1,104 @@
+/*
+ * This file is part of PlaceholderAPI
+ *
+ * PlaceholderAPI
+ * Copyright (c) 2015 - 2021 PlaceholderAPI Team
+ *
+ * PlaceholderAPI is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PlaceholderAPI is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package me.clip.placeholderapi.expansion.manager;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import me.clip.placeholderapi.expansion.Memoizable;
+import me.clip.placeholderapi.expansion.PlaceholderExpansion;
+import me.clip.placeholderapi.expansion.PlaceholderParameters;
+import me.clip.placeholderapi.replacer.Resolver;
+import org.bukkit.OfflinePlayer;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Remembers the values of {@link Memoizable} expansions until it is cleared, which happens at the
+ * start of every server tick.
+ */
+final class TickMemo {
+
+  /**
+   * Stands in for requests without a player, the maps don't allow null keys
+   */
+  @NotNull
+  private static final UUID NO_PLAYER = new UUID(0, 0);
+
+
+  /**
+   * Values by expansion, player and parameters. Nested maps are looked up with the objects the
+   * request already has, so a remembered value is found without allocating a key.
+   */
+  @NotNull
+  private volatile Map<PlaceholderExpansion, Map<UUID, Map<String, String>>> values =
+      new ConcurrentHashMap<>();
+
+  @NotNull
+  private final LongAdder hits = new LongAdder();
+  @NotNull
+  private final LongAdder misses = new LongAdder();
+
+
+  @Nullable
+  String request(@NotNull final PlaceholderExpansion expansion,
+      @Nullable final OfflinePlayer player, @NotNull final PlaceholderParameters params,
+      @NotNull final Resolver resolver) {
+    final Map<PlaceholderExpansion, Map<UUID, Map<String, String>>> values = this.values;
+    final UUID uuid = player == null ? NO_PLAYER : player.getUniqueId();
+
+    final Map<UUID, Map<String, String>> players = values.get(expansion);
+    final Map<String, String> remembered = players == null ? null : players.get(uuid);
+
+    String value = remembered == null ? null : remembered.get(params.toString());
+    if (value != null) {
+      hits.increment();
+      return value;
+    }
+
+    misses.increment();
+
+    value = resolver.resolve(expansion, player, params);
+    if (value != null) {
+      values.computeIfAbsent(expansion, key -> new ConcurrentHashMap<>())
+          .computeIfAbsent(uuid, key -> new ConcurrentHashMap<>())
+          .put(params.toString(), value);
+    }
+
+    return value;
+  }
+
+  void clear() {
+    if (!values.isEmpty()) {
+      values = new ConcurrentHashMap<>();
+    }
+  }
+
+  long hits() {
+    return hits.sum();
+  }
+
+  long misses() {
+    return misses.sum();
+  }
+
+}
@@ -0,0 +1,90 @@
+/*
+ * This file is part of PlaceholderAPI
+ *
+ * PlaceholderAPI
+ * Copyright (c) 2015 - 2021 PlaceholderAPI Team
+ *
+ * PlaceholderAPI is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PlaceholderAPI is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package me.clip.placeholderapi.expansion.manager;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BooleanSupplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import me.clip.placeholderapi.expansion.PlaceholderExpansion;
+import me.clip.placeholderapi.expansion.ThreadSafe;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Reports requests to expansions that aren't {@link ThreadSafe} from other threads than the main
+ * thread, once per expansion until it is forgotten.
+ */
+final class UnsafeRequestReporter {
+
+  @NotNull
+  private final Logger logger;
+  @NotNull
+  private final BooleanSupplier primaryThread;
+
+  @NotNull
+  private final Set<PlaceholderExpansion> reported = ConcurrentHashMap.newKeySet();
+
+  /**
+   * Whether requests are reported, taken from the debug option when loading
+   */
+  private volatile boolean enabled;
+
+
+  UnsafeRequestReporter(@NotNull final Logger logger,
+      @NotNull final BooleanSupplier primaryThread) {
+    this.logger = logger;
+    this.primaryThread = primaryThread;
+  }
+
+
+  /**
+   * Enables or disables the reports, and forgets the expansions already reported.
+   */
+  void setEnabled(final boolean enabled) {
+    this.enabled = enabled;
+    reported.clear();
+  }
+
+  /**
+   * Reports the request if it is made to an expansion that isn't thread safe from another thread
+   * than the main thread, and the expansion hasn't been reported yet.
+   */
+  void check(@NotNull final PlaceholderExpansion expansion, @NotNull final Object params) {
+    if (!enabled || expansion instanceof ThreadSafe || primaryThread.getAsBoolean()
+        || !reported.add(expansion)) {
+      return;
+    }
+
+    logger.log(Level.WARNING, "Expansion " + expansion.getIdentifier()
+        + " is not thread safe, but its placeholder %" + expansion.getIdentifier() + "_" + params
+        + "% was requested from thread " + Thread.currentThread().getName(),
+        new IllegalStateException("placeholder requested off the main thread"));
+  }
+
+  /**
+   * Forgets that the expansion has been reported, called when it is unregistered.
+   */
+  void forget(@NotNull final PlaceholderExpansion expansion) {
+    reported.remove(expansion);
+  }
+
+}
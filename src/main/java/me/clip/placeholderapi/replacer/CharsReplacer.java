@@ -20,8 +20,12 @@
 
 package me.clip.placeholderapi.replacer;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
 import java.util.function.Function;
 import me.clip.placeholderapi.expansion.PlaceholderExpansion;
+import me.clip.placeholderapi.expansion.PlaceholderParameters;
 import org.bukkit.ChatColor;
 import org.bukkit.OfflinePlayer;
 import org.jetbrains.annotations.NotNull;
@@ -30,149 +34,468 @@ import org.jetbrains.annotations.Nullable;
 public final class CharsReplacer implements Replacer {
 
   @NotNull
-  private final Closure closure;
+  private final Closure[] closures;
+  @NotNull
+  private final Resolver resolver;
+
+  /**
+   * Replacer used for the placeholders nested in the parameters of a placeholder, null if nested
+   * placeholders are not resolved
+   */
+  @Nullable
+  private final CharsReplacer inner;
+  /**
+   * Whether this replacer parses the parameters of another placeholder, in which case color
+   * codes are left untouched
+   */
+  private final boolean nested;
 
   public CharsReplacer(@NotNull final Closure closure) {
-    this.closure = closure;
+    this(closure, 0);
   }
 
+  /**
+   * Creates a replacer which also resolves bracket placeholders nested in the parameters of a
+   * placeholder before requesting it, like {@literal %identifier_{other_params}%}.
+   *
+   * @param closure The closure to translate placeholders of
+   * @param depth How deep placeholders may be nested, 0 disables nested placeholders
+   */
+  public CharsReplacer(@NotNull final Closure closure, final int depth) {
+    this(closure, depth, Resolver.DIRECT);
+  }
+
+  /**
+   * Creates a replacer which requests the values of its placeholders through the provided
+   * resolver.
+   *
+   * @param closure The closure to translate placeholders of
+   * @param depth How deep placeholders may be nested, 0 disables nested placeholders
+   * @param resolver The resolver used to request the values of placeholders
+   * @see #CharsReplacer(Closure, int)
+   */
+  public CharsReplacer(@NotNull final Closure closure, final int depth,
+      @NotNull final Resolver resolver) {
+    this(new Closure[]{closure}, depth, resolver, false);
+  }
+
+  /**
+   * Creates a replacer which translates the placeholders of all provided closures in a single
+   * scan of the text.
+   * <br>Unlike applying a replacer per closure one after another, values returned by the
+   * expansions are never scanned for placeholders of the other closures.
+   *
+   * @param closures The closures to translate placeholders of
+   */
+  public CharsReplacer(@NotNull final Set<Closure> closures) {
+    this(closures, 0);
+  }
+
+  /**
+   * Creates a replacer which translates the placeholders of all provided closures in a single
+   * scan of the text, resolving nested bracket placeholders up to the provided depth.
+   *
+   * @param closures The closures to translate placeholders of
+   * @param depth How deep placeholders may be nested, 0 disables nested placeholders
+   * @see #CharsReplacer(Closure, int)
+   */
+  public CharsReplacer(@NotNull final Set<Closure> closures, final int depth) {
+    this(closures, depth, Resolver.DIRECT);
+  }
+
+  /**
+   * Creates a replacer which translates the placeholders of all provided closures in a single
+   * scan of the text and requests their values through the provided resolver.
+   *
+   * @param closures The closures to translate placeholders of
+   * @param depth How deep placeholders may be nested, 0 disables nested placeholders
+   * @param resolver The resolver used to request the values of placeholders
+   * @see #CharsReplacer(Set, int)
+   */
+  public CharsReplacer(@NotNull final Set<Closure> closures, final int depth,
+      @NotNull final Resolver resolver) {
+    this(toArray(closures), depth, resolver, false);
+  }
+
+  private CharsReplacer(@NotNull final Closure[] closures, final int depth,
+      @NotNull final Resolver resolver, final boolean nested) {
+    this.closures = closures;
+    this.resolver = resolver;
+    this.nested = nested;
+    this.inner = depth <= 0 ? null
+        : new CharsReplacer(new Closure[]{Closure.BRACKET}, depth - 1, resolver, true);
+  }
 
   @NotNull
   @Override
   public String apply(@NotNull final String text, @Nullable final OfflinePlayer player,
       @NotNull final Function<String, @Nullable PlaceholderExpansion> lookup) {
-    final char[] chars = text.toCharArray();
-    final StringBuilder builder = new StringBuilder(text.length());
+    if (!hasCandidates(text)) {
+      return text;
+    }
 
-    final StringBuilder identifier = new StringBuilder();
-    final StringBuilder parameters = new StringBuilder();
+    final StringBuilder builder = new StringBuilder(text.length());
+    applyTo(text, player, lookup, builder);
 
-    for (int i = 0; i < chars.length; i++) {
-      final char l = chars[i];
-      
-      if (l == '&' && ++i < chars.length) {
-        final char c = Character.toLowerCase(chars[i]);
+    return builder.toString();
+  }
 
-        if (c != '0' && c != '1' && c != '2' && c != '3' && c != '4' && c != '5' && c != '6'
-            && c != '7' && c != '8' && c != '9' && c != 'a' && c != 'b' && c != 'c' && c != 'd'
-            && c != 'e' && c != 'f' && c != 'k' && c != 'l' && c != 'm' && c != 'n' && c != 'o' && c != 'r'
-            && c != 'x') {
-          builder.append(l).append(chars[i]);
-        } else {
-          builder.append(ChatColor.COLOR_CHAR);
-
-          if (c != 'x') {
-            builder.append(chars[i]);
-            continue;
-          }
-
-          if ((i > 1 && chars[i - 2] == '\\') /*allow escaping &x*/) {
-            builder.setLength(builder.length() - 2);
-            builder.append('&').append(chars[i]);
-            continue;
-          }
-
-          builder.append(c);
-
-          int j = 0;
-          while (++j <= 6) {
-            if (i + j >= chars.length) {
-              break;
-            }
-
-            final char x = chars[i + j];
-            builder.append(ChatColor.COLOR_CHAR).append(x);
-          }
-
-          if (j == 7) {
-            i += 6;
-          } else {
-            builder.setLength(builder.length() - (j * 2)); // undo &x parsing
-          }
+  @Override
+  public void applyTo(@NotNull final CharSequence text, @Nullable final OfflinePlayer player,
+      @NotNull final Function<String, @Nullable PlaceholderExpansion> lookup,
+      @NotNull final StringBuilder builder) {
+    scan(text.toString(), builder, (out, closure, source, start, split, end) -> {
+      final boolean identified = split != end;
+
+      String parameters = null;
+      if (inner != null && identified) {
+        parameters = source.substring(split + 1, end);
+
+        if (inner.hasCandidates(parameters)) {
+          parameters = inner.apply(parameters, player, lookup);
         }
-        continue;
       }
 
-      if (l != closure.head || i + 1 >= chars.length) {
-        builder.append(l);
-        continue;
+      // an identifier lookup finds the expansion from the text itself, so unknown identifiers
+      // don't cost any strings
+      final PlaceholderExpansion placeholder = lookup instanceof IdentifierLookup
+          ? ((IdentifierLookup) lookup).find(source, start, split)
+          : lookup.apply(source.substring(start, split).toLowerCase());
+      if (placeholder == null) {
+        appendRaw(out, closure, source, start, split, end, parameters);
+        return;
       }
 
-      boolean identified = false;
-      boolean oopsitsbad = true;
-      boolean hadSpace = false;
+      if (parameters == null) {
+        parameters = identified ? source.substring(split + 1, end) : "";
+      }
 
-      while (++i < chars.length) {
-        final char p = chars[i];
+      final String replacement =
+          resolver.resolve(placeholder, player, PlaceholderParameters.of(parameters));
+      if (replacement == null) {
+        appendRaw(out, closure, source, start, split, end, parameters);
+        return;
+      }
 
-        if (p == ' ' && !identified) {
-          hadSpace = true;
-          break;
-        }
-        if (p == closure.tail) {
-          oopsitsbad = false;
-          break;
+      out.append(nested ? replacement : ChatColor.translateAlternateColorCodes('&', replacement));
+    });
+  }
+
+  /**
+   * Parses the provided text once into a {@link PlaceholderTemplate}, which can be rendered any
+   * number of times without scanning the text again.
+   * <br>Color codes are translated while parsing, the values of the placeholders are requested
+   * from the expansions provided by the lookup every time the template is rendered.
+   *
+   * @param text Text to parse
+   * @param lookup Function used to find the expansion of an identifier when rendering
+   * @return The parsed template
+   */
+  @NotNull
+  public PlaceholderTemplate compile(@NotNull final String text,
+      @NotNull final Function<String, @Nullable PlaceholderExpansion> lookup) {
+    final List<String> literals = new ArrayList<>();
+    final List<PlaceholderTemplate.Placeholder> placeholders = new ArrayList<>();
+
+    if (!hasCandidates(text)) {
+      literals.add(text);
+      return new PlaceholderTemplate(text, literals, placeholders, lookup, resolver, !nested);
+    }
+
+    final StringBuilder builder = new StringBuilder(text.length());
+
+    scan(text, builder, (out, closure, source, start, split, end) -> {
+      literals.add(out.toString());
+      out.setLength(0);
+
+      final boolean identified = split != end;
+      final String identifier = source.substring(start, split).toLowerCase();
+      final String parameters = identified ? source.substring(split + 1, end) : "";
+
+      final PlaceholderTemplate nestedParameters =
+          inner != null && inner.hasCandidates(parameters) ? inner.compile(parameters, lookup)
+              : null;
+
+      placeholders.add(new PlaceholderTemplate.Placeholder(closure, identifier, parameters,
+          nestedParameters, identified));
+    });
+
+    literals.add(builder.toString());
+
+    return new PlaceholderTemplate(text, literals, placeholders, lookup, resolver, !nested);
+  }
+
+
+  /**
+   * Whether the text contains any character this replacer has to look at, either the head of one
+   * of its closures or a color code. Texts without any can be returned as they are.
+   *
+   * @param text Text to check
+   * @return true if the text has to be scanned
+   */
+  boolean hasCandidates(@NotNull final String text) {
+    if (!nested && text.indexOf('&') != -1) {
+      return true;
+    }
+
+    for (final Closure closure : closures) {
+      if (text.indexOf(closure.head) != -1) {
+        return true;
+      }
+    }
+
+    return false;
+  }
+
+  private void scan(@NotNull final String text, @NotNull final StringBuilder builder,
+      @NotNull final Sink sink) {
+    final int length = text.length();
+
+    int color = nested ? -1 : text.indexOf('&');
+
+    final int[] heads = new int[closures.length];
+    for (int c = 0; c < closures.length; c++) {
+      heads[c] = text.indexOf(closures[c].head);
+    }
+
+    int i = 0;
+    while (i < length) {
+      if (color != -1 && color < i) {
+        color = text.indexOf('&', i);
+      }
+
+      int next = color;
+      Closure closure = null;
+
+      for (int c = 0; c < closures.length; c++) {
+        int head = heads[c];
+        if (head != -1 && head < i) {
+          head = heads[c] = text.indexOf(closures[c].head, i);
         }
 
-        if (p == '_' && !identified) {
-          identified = true;
-          continue;
+        if (head != -1 && (next == -1 || head < next)) {
+          next = head;
+          closure = closures[c];
         }
+      }
+
+      if (next == -1) {
+        builder.append(text, i, length);
+        return;
+      }
+
+      builder.append(text, i, next);
+
+      if (closure == null) {
+        i = scanColor(text, next, builder);
+      } else {
+        i = scanPlaceholder(text, next, closure, builder, sink);
+      }
+    }
+  }
+
+  private int scanColor(@NotNull final String text, final int index,
+      @NotNull final StringBuilder builder) {
+    final int length = text.length();
 
-        if (identified) {
-          parameters.append(p);
+    int i = index + 1;
+    if (i >= length) {
+      builder.append('&');
+      return i;
+    }
+
+    final char code = text.charAt(i);
+    final char c = Character.toLowerCase(code);
+
+    if (c != '0' && c != '1' && c != '2' && c != '3' && c != '4' && c != '5' && c != '6'
+        && c != '7' && c != '8' && c != '9' && c != 'a' && c != 'b' && c != 'c' && c != 'd'
+        && c != 'e' && c != 'f' && c != 'k' && c != 'l' && c != 'm' && c != 'n' && c != 'o' && c != 'r'
+        && c != 'x') {
+      builder.append('&').append(code);
+      return i + 1;
+    }
+
+    builder.append(ChatColor.COLOR_CHAR);
+
+    if (c != 'x') {
+      builder.append(code);
+      return i + 1;
+    }
+
+    if ((index > 0 && text.charAt(index - 1) == '\\') /*allow escaping &x*/) {
+      builder.setLength(builder.length() - 2);
+      builder.append('&').append(code);
+      return i + 1;
+    }
+
+    builder.append(c);
+
+    int j = 0;
+    while (++j <= 6) {
+      if (i + j >= length) {
+        break;
+      }
+
+      builder.append(ChatColor.COLOR_CHAR).append(text.charAt(i + j));
+    }
+
+    if (j == 7) {
+      i += 6;
+    } else {
+      builder.setLength(builder.length() - (j * 2)); // undo &x parsing
+    }
+
+    return i + 1;
+  }
+
+  private int scanPlaceholder(@NotNull final String text, final int index,
+      @NotNull final Closure closure, @NotNull final StringBuilder builder,
+      @NotNull final Sink sink) {
+    final int length = text.length();
+
+    if (index + 1 >= length) {
+      builder.append(closure.head);
+      return index + 1;
+    }
+
+    int underscore = -1;
+    boolean oopsitsbad = true;
+    boolean hadSpace = false;
+
+    int i = index;
+    while (++i < length) {
+      final char p = text.charAt(i);
+
+      if (p == ' ') {
+        hadSpace = true;
+        break;
+      }
+      if (p == closure.tail) {
+        oopsitsbad = false;
+        break;
+      }
+
+      if (p == '_') {
+        underscore = i;
+
+        // the parameters may contain anything but the tail, besides nested placeholders
+        final int tail = findTail(text, i + 1, closure);
+        if (tail != -1) {
+          oopsitsbad = false;
+          i = tail;
         } else {
-          identifier.append(p);
+          i = length;
         }
+        break;
       }
+    }
 
-      final String identifierString = identifier.toString().toLowerCase();
-      final String parametersString = parameters.toString();
+    final int split = underscore != -1 ? underscore : i;
 
-      identifier.setLength(0);
-      parameters.setLength(0);
+    if (oopsitsbad) {
+      builder.append(closure.head);
+      appendLowerCase(builder, text, index + 1, split);
 
-      if (oopsitsbad) {
-        builder.append(closure.head).append(identifierString);
+      if (split != i) {
+        builder.append(text, split, i);
+      }
 
-        if (identified) {
-          builder.append('_').append(parametersString);
-        }
+      if (hadSpace) {
+        builder.append(' ');
+      }
 
-        if (hadSpace) {
-          builder.append(' ');
-        }
-        continue;
+      return i + 1;
+    }
+
+    sink.accept(builder, closure, text, index + 1, split, i);
+    return i + 1;
+  }
+
+  private int findTail(@NotNull final String text, final int index,
+      @NotNull final Closure closure) {
+    if (inner == null) {
+      return text.indexOf(closure.tail, index);
+    }
+
+    int i = index;
+    while (true) {
+      final int tail = text.indexOf(closure.tail, i);
+      final int head = text.indexOf(Closure.BRACKET.head, i);
+
+      if (head == -1 || (tail != -1 && tail < head)) {
+        return tail;
       }
 
-      final PlaceholderExpansion placeholder = lookup.apply(identifierString);
-      if (placeholder == null) {
-        builder.append(closure.head).append(identifierString);
+      final int end = inner.findEnd(text, head);
+      i = end == -1 ? head + 1 : end + 1;
+    }
+  }
 
-        if (identified) {
-          builder.append('_');
-        }
+  private int findEnd(@NotNull final String text, final int index) {
+    for (int i = index + 1; i < text.length(); i++) {
+      final char p = text.charAt(i);
 
-        builder.append(parametersString).append(closure.tail);
-        continue;
+      if (p == ' ') {
+        return -1;
       }
+      if (p == Closure.BRACKET.tail) {
+        return i;
+      }
+      if (p == '_') {
+        return findTail(text, i + 1, Closure.BRACKET);
+      }
+    }
 
-      final String replacement = placeholder.onRequest(player, parametersString);
-      if (replacement == null) {
-        builder.append(closure.head).append(identifierString);
+    return -1;
+  }
 
-        if (identified) {
-          builder.append('_');
-        }
+  private static void appendRaw(@NotNull final StringBuilder builder,
+      @NotNull final Closure closure, @NotNull final String text, final int start,
+      final int split, final int end, @Nullable final String parameters) {
+    builder.append(closure.head);
+    appendLowerCase(builder, text, start, split);
 
-        builder.append(parametersString).append(closure.tail);
-        continue;
+    if (split != end) {
+      builder.append('_');
+
+      if (parameters == null) {
+        builder.append(text, split + 1, end);
+      } else {
+        builder.append(parameters);
       }
+    }
 
-      builder.append(ChatColor.translateAlternateColorCodes('&', replacement));
+    builder.append(closure.tail);
+  }
+
+  private static void appendLowerCase(@NotNull final StringBuilder builder,
+      @NotNull final String text, final int start, final int end) {
+    for (int i = start; i < end; i++) {
+      builder.append(Character.toLowerCase(text.charAt(i)));
     }
+  }
 
-    return builder.toString();
+
+  @NotNull
+  private static Closure[] toArray(@NotNull final Set<Closure> closures) {
+    if (closures.isEmpty()) {
+      throw new IllegalArgumentException("at least one closure is required");
+    }
+
+    return closures.toArray(new Closure[0]);
+  }
+
+
+  /**
+   * Receives every complete placeholder of a scan, as ranges of the scanned text. The identifier
+   * spans from start to split, the parameters, if the placeholder has any, from after the
+   * underscore at split to end.
+   */
+  @FunctionalInterface
+  private interface Sink {
+
+    void accept(@NotNull final StringBuilder builder, @NotNull final Closure closure,
+        @NotNull final String text, final int start, final int split, final int end);
   }
 
 }
@@ -0,0 +1,52 @@
+/*
+ * This file is part of PlaceholderAPI
+ *
+ * PlaceholderAPI
+ * Copyright (c) 2015 - 2021 PlaceholderAPI Team
+ *
+ * PlaceholderAPI is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PlaceholderAPI is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package me.clip.placeholderapi.replacer;
+
+import java.util.function.Function;
+import me.clip.placeholderapi.expansion.PlaceholderExpansion;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Finds the expansion of an identifier directly from a range of characters, ignoring their case.
+ * <br>Replacers given a lookup of this type don't have to create and lowercase a string for every
+ * identifier they come across.
+ */
+public interface IdentifierLookup extends Function<String, @Nullable PlaceholderExpansion> {
+
+  /**
+   * Finds the expansion registered for the identifier between start and end of the text.
+   *
+   * @param text Text containing the identifier
+   * @param start Index of the first character of the identifier
+   * @param end Index after the last character of the identifier
+   * @return The expansion, or null if none is registered for the identifier
+   */
+  @Nullable
+  PlaceholderExpansion find(@NotNull final CharSequence text, final int start, final int end);
+
+  @Nullable
+  @Override
+  default PlaceholderExpansion apply(@NotNull final String identifier) {
+    return find(identifier, 0, identifier.length());
+  }
+
+}
@@ -0,0 +1,154 @@
+/*
+ * This file is part of PlaceholderAPI
+ *
+ * PlaceholderAPI
+ * Copyright (c) 2015 - 2021 PlaceholderAPI Team
+ *
+ * PlaceholderAPI is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PlaceholderAPI is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package me.clip.placeholderapi.replacer;
+
+import com.google.common.collect.ImmutableMap;
+import java.util.Arrays;
+import java.util.Map;
+import me.clip.placeholderapi.expansion.PlaceholderExpansion;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * An immutable trie over lowercased identifiers.
+ * <br>Lookups fold the case of each character as they walk the trie, so they never allocate, and
+ * stop at the first character no identifier continues with, so unknown identifiers are rejected
+ * without reading them in full.
+ */
+public final class IdentifierTrie implements IdentifierLookup {
+
+  @NotNull
+  private static final IdentifierTrie EMPTY = new IdentifierTrie(ImmutableMap.of());
+
+  @NotNull
+  private final ImmutableMap<String, PlaceholderExpansion> expansions;
+  @NotNull
+  private final Node root;
+
+
+  private IdentifierTrie(@NotNull final ImmutableMap<String, PlaceholderExpansion> expansions) {
+    this.expansions = expansions;
+    this.root = new Node();
+
+    for (final Map.Entry<String, PlaceholderExpansion> entry : expansions.entrySet()) {
+      final String identifier = entry.getKey();
+
+      Node node = root;
+      for (int i = 0; i < identifier.length(); i++) {
+        node = node.child(Character.toLowerCase(identifier.charAt(i)));
+      }
+
+      node.expansion = entry.getValue();
+    }
+  }
+
+
+  /**
+   * @return A trie without any identifiers
+   */
+  @NotNull
+  public static IdentifierTrie empty() {
+    return EMPTY;
+  }
+
+  /**
+   * Creates a trie over the identifiers of the provided map, which are expected to be lowercase.
+   *
+   * @param expansions The expansions by their identifier
+   * @return The trie
+   */
+  @NotNull
+  public static IdentifierTrie of(@NotNull final Map<String, PlaceholderExpansion> expansions) {
+    return expansions.isEmpty() ? EMPTY : new IdentifierTrie(ImmutableMap.copyOf(expansions));
+  }
+
+
+  /**
+   * @return The expansions this trie was created from, by their identifier
+   */
+  @NotNull
+  public ImmutableMap<String, PlaceholderExpansion> asMap() {
+    return expansions;
+  }
+
+  @Nullable
+  @Override
+  public PlaceholderExpansion find(@NotNull final CharSequence text, final int start,
+      final int end) {
+    Node node = root;
+    for (int i = start; i < end; i++) {
+      node = node.next(Character.toLowerCase(text.charAt(i)));
+      if (node == null) {
+        return null;
+      }
+    }
+
+    return node.expansion;
+  }
+
+
+  private static final class Node {
+
+    private static final char[] NO_KEYS = new char[0];
+    private static final Node[] NO_CHILDREN = new Node[0];
+
+    // sorted, so lookups can binary search them
+    private char[] keys = NO_KEYS;
+    private Node[] children = NO_CHILDREN;
+    @Nullable
+    private PlaceholderExpansion expansion;
+
+
+    @Nullable
+    private Node next(final char key) {
+      final int index = Arrays.binarySearch(keys, key);
+      return index < 0 ? null : children[index];
+    }
+
+    @NotNull
+    private Node child(final char key) {
+      int index = Arrays.binarySearch(keys, key);
+      if (index >= 0) {
+        return children[index];
+      }
+
+      index = -(index + 1);
+
+      final char[] keys = new char[this.keys.length + 1];
+      final Node[] children = new Node[this.children.length + 1];
+
+      System.arraycopy(this.keys, 0, keys, 0, index);
+      System.arraycopy(this.children, 0, children, 0, index);
+      System.arraycopy(this.keys, index, keys, index + 1, this.keys.length - index);
+      System.arraycopy(this.children, index, children, index + 1, this.children.length - index);
+
+      final Node node = new Node();
+      keys[index] = key;
+      children[index] = node;
+
+      this.keys = keys;
+      this.children = children;
+      return node;
+    }
+
+  }
+
+}
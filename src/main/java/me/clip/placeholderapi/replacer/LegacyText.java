@@ -0,0 +1,214 @@
+/*
+ * This file is part of PlaceholderAPI
+ *
+ * PlaceholderAPI
+ * Copyright (c) 2015 - 2021 PlaceholderAPI Team
+ *
+ * PlaceholderAPI is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PlaceholderAPI is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package me.clip.placeholderapi.replacer;
+
+import java.util.Arrays;
+import org.bukkit.ChatColor;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Splits texts containing legacy formatting codes into the runs of a {@link StyleVisitor}.
+ */
+public final class LegacyText {
+
+  @NotNull
+  private static final String CODES = "0123456789abcdefklmnorx";
+
+
+  private LegacyText() {}
+
+
+  /**
+   * Visits the runs of text and the formatting codes of a text containing legacy formatting codes
+   * prefixed with {@link ChatColor#COLOR_CHAR}, including hex colors in the format used by
+   * Bukkit, {@literal x} followed by six prefixed hex digits.
+   *
+   * @param text The text to visit
+   * @param visitor The visitor receiving the runs of text and formatting codes
+   */
+  public static void visit(@NotNull final CharSequence text, @NotNull final StyleVisitor visitor) {
+    visit(text, false, visitor);
+  }
+
+  /**
+   * Visits the runs of text and the formatting codes of a text, treating {@literal &} like
+   * {@link ChatColor#COLOR_CHAR} if {@code alternate} is set. The result is the same as visiting
+   * the text after translating it with {@link ChatColor#translateAlternateColorCodes}.
+   *
+   * @param text The text to visit
+   * @param alternate Whether {@literal &} starts formatting codes as well
+   * @param visitor The visitor receiving the runs of text and formatting codes
+   */
+  static void visit(@NotNull final CharSequence text, final boolean alternate,
+      @NotNull final StyleVisitor visitor) {
+    final int length = text.length();
+
+    int start = 0;
+    int i = 0;
+    while (i < length - 1) {
+      if (!isPrefix(text.charAt(i), alternate)) {
+        i++;
+        continue;
+      }
+
+      final char code = Character.toLowerCase(text.charAt(i + 1));
+      if (CODES.indexOf(code) == -1) {
+        i++;
+        continue;
+      }
+
+      if (start < i) {
+        visitor.text(text, start, i);
+      }
+
+      i += 2;
+
+      if (code != 'x') {
+        visitor.format(code);
+      } else {
+        final int rgb = hex(text, i, alternate);
+
+        // a hex color without all six digits is dropped
+        if (rgb != -1) {
+          visitor.color(rgb);
+          i += 12;
+        }
+      }
+
+      start = i;
+    }
+
+    if (start < length) {
+      visitor.text(text, start, length);
+    }
+  }
+
+  private static int hex(@NotNull final CharSequence text, final int index,
+      final boolean alternate) {
+    if (index + 12 > text.length()) {
+      return -1;
+    }
+
+    int rgb = 0;
+    for (int i = index; i < index + 12; i += 2) {
+      final int digit = Character.digit(text.charAt(i + 1), 16);
+      if (!isPrefix(text.charAt(i), alternate) || digit == -1) {
+        return -1;
+      }
+
+      rgb = rgb << 4 | digit;
+    }
+
+    return rgb;
+  }
+
+  private static boolean isPrefix(final char c, final boolean alternate) {
+    return c == ChatColor.COLOR_CHAR || (alternate && c == '&');
+  }
+
+
+  /**
+   * The runs of a text, scanned once and passed to any number of visitors afterwards.
+   */
+  static final class Runs implements StyleVisitor {
+
+    private static final int TEXT = 0;
+    private static final int FORMAT = 1;
+    private static final int COLOR = 2;
+
+
+    @NotNull
+    private final CharSequence text;
+    /**
+     * Every run as its type followed by two values, the bounds of a text run or the code or color
+     */
+    @NotNull
+    private int[] runs = new int[6];
+    private int size;
+
+
+    private Runs(@NotNull final CharSequence text) {
+      this.text = text;
+    }
+
+
+    /**
+     * @param text The text containing legacy formatting codes
+     * @return The runs of the text
+     */
+    @NotNull
+    static Runs of(@NotNull final CharSequence text) {
+      final Runs runs = new Runs(text);
+      LegacyText.visit(text, runs);
+
+      runs.runs = Arrays.copyOf(runs.runs, runs.size);
+      return runs;
+    }
+
+
+    /**
+     * Passes the runs to the visitor, the same as visiting the text with {@link LegacyText#visit}.
+     *
+     * @param visitor The visitor receiving the runs of text and formatting codes
+     */
+    void visit(@NotNull final StyleVisitor visitor) {
+      for (int i = 0; i < size; i += 3) {
+        switch (runs[i]) {
+          case TEXT:
+            visitor.text(text, runs[i + 1], runs[i + 2]);
+            break;
+          case FORMAT:
+            visitor.format((char) runs[i + 1]);
+            break;
+          default:
+            visitor.color(runs[i + 1]);
+            break;
+        }
+      }
+    }
+
+    @Override
+    public void text(@NotNull final CharSequence text, final int start, final int end) {
+      add(TEXT, start, end);
+    }
+
+    @Override
+    public void format(final char code) {
+      add(FORMAT, code, 0);
+    }
+
+    @Override
+    public void color(final int rgb) {
+      add(COLOR, rgb, 0);
+    }
+
+    private void add(final int type, final int first, final int second) {
+      if (size + 3 > runs.length) {
+        runs = Arrays.copyOf(runs, runs.length * 2);
+      }
+
+      runs[size++] = type;
+      runs[size++] = first;
+      runs[size++] = second;
+    }
+  }
+
+}
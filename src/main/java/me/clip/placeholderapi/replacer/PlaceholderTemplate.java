@@ -0,0 +1,534 @@
+/*
+ * This file is part of PlaceholderAPI
+ *
+ * PlaceholderAPI
+ * Copyright (c) 2015 - 2021 PlaceholderAPI Team
+ *
+ * PlaceholderAPI is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PlaceholderAPI is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package me.clip.placeholderapi.replacer;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import me.clip.placeholderapi.expansion.PlaceholderExpansion;
+import me.clip.placeholderapi.expansion.PlaceholderParameters;
+import me.clip.placeholderapi.expansion.PlaceholderScope;
+import me.clip.placeholderapi.expansion.ThreadSafe;
+import me.clip.placeholderapi.replacer.Replacer.Closure;
+import me.clip.placeholderapi.util.MainThreadExecutor;
+import org.bukkit.ChatColor;
+import org.bukkit.OfflinePlayer;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * A text that has been parsed once into its literal parts and its placeholders.
+ * <br>Rendering a template only requests the placeholder values from their expansions and
+ * concatenates them with the already color translated literals, the text is never scanned again.
+ * <br>Templates are immutable and can safely be shared and rendered across threads.
+ *
+ * @see CharsReplacer#compile(String, Function)
+ */
+public final class PlaceholderTemplate {
+
+  @NotNull
+  private final String text;
+  @NotNull
+  private final String[] literals;
+  /**
+   * The runs of every literal, split the first time the template is rendered styled
+   */
+  @Nullable
+  private volatile LegacyText.Runs[] literalRuns;
+  @NotNull
+  private final Placeholder[] placeholders;
+  @NotNull
+  private final Function<String, @Nullable PlaceholderExpansion> lookup;
+  @NotNull
+  private final Resolver resolver;
+
+  /**
+   * Whether color codes in the values of the placeholders are translated, false for the
+   * parameters of nested placeholders
+   */
+  private final boolean colors;
+  private final int length;
+
+
+  PlaceholderTemplate(@NotNull final String text, @NotNull final List<String> literals,
+      @NotNull final List<Placeholder> placeholders,
+      @NotNull final Function<String, @Nullable PlaceholderExpansion> lookup,
+      @NotNull final Resolver resolver, final boolean colors) {
+    this.text = text;
+    this.literals = literals.toArray(new String[0]);
+    this.placeholders = placeholders.toArray(new Placeholder[0]);
+    this.lookup = lookup;
+    this.resolver = resolver;
+    this.colors = colors;
+
+    int length = 0;
+    for (final String literal : this.literals) {
+      length += literal.length();
+    }
+    for (final Placeholder placeholder : this.placeholders) {
+      length += placeholder.raw.length();
+    }
+
+    this.length = length;
+  }
+
+
+  /**
+   * The text this template was parsed from
+   *
+   * @return the original text
+   */
+  @NotNull
+  public String getText() {
+    return text;
+  }
+
+  /**
+   * Whether this template contains any placeholders, if not, every render returns the same
+   * String.
+   *
+   * @return true if the template contains at least one placeholder
+   */
+  public boolean hasPlaceholders() {
+    return placeholders.length != 0;
+  }
+
+  /**
+   * Translates all placeholders of this template into their corresponding values.
+   *
+   * @param player Player to parse the placeholders against
+   * @return String containing all translated placeholders
+   */
+  @NotNull
+  public String render(@Nullable final OfflinePlayer player) {
+    return render(player, lookup);
+  }
+
+  /**
+   * Translates all placeholders of this template into their corresponding values, using the
+   * provided lookup instead of the one this template was compiled with.
+   *
+   * @param player Player to parse the placeholders against
+   * @param lookup Function used to find the expansion of an identifier
+   * @return String containing all translated placeholders
+   */
+  @NotNull
+  public String render(@Nullable final OfflinePlayer player,
+      @NotNull final Function<String, @Nullable PlaceholderExpansion> lookup) {
+    if (placeholders.length == 0) {
+      return literals[0];
+    }
+
+    final StringBuilder builder = new StringBuilder(length);
+    renderTo(player, lookup, builder);
+
+    return builder.toString();
+  }
+
+  /**
+   * Translates all placeholders of this template into their corresponding values and appends the
+   * result to the provided builder.
+   *
+   * @param player Player to parse the placeholders against
+   * @param builder Builder the translated text is appended to
+   */
+  public void renderTo(@Nullable final OfflinePlayer player, @NotNull final StringBuilder builder) {
+    renderTo(player, lookup, builder);
+  }
+
+  /**
+   * Translates all placeholders of this template into their corresponding values, using the
+   * provided lookup instead of the one this template was compiled with, and appends the result
+   * to the provided builder.
+   *
+   * @param player Player to parse the placeholders against
+   * @param lookup Function used to find the expansion of an identifier
+   * @param builder Builder the translated text is appended to
+   */
+  public void renderTo(@Nullable final OfflinePlayer player,
+      @NotNull final Function<String, @Nullable PlaceholderExpansion> lookup,
+      @NotNull final StringBuilder builder) {
+    renderTo(player, null, null, lookup, builder);
+  }
+
+  /**
+   * Translates all placeholders of this template into their corresponding values and passes the
+   * result to the provided visitor as runs of text and formatting codes, instead of as a legacy
+   * String.
+   * <br>Color codes of the values are handled while passing them to the visitor, the result is the
+   * same as visiting {@link #render(OfflinePlayer)} with {@link LegacyText#visit}.
+   *
+   * @param player Player to parse the placeholders against
+   * @param visitor Visitor receiving the translated text
+   */
+  public void renderStyled(@Nullable final OfflinePlayer player,
+      @NotNull final StyleVisitor visitor) {
+    renderStyled(player, lookup, visitor);
+  }
+
+  /**
+   * Translates all placeholders of this template into their corresponding values, using the
+   * provided lookup instead of the one this template was compiled with, and passes the result to
+   * the provided visitor.
+   *
+   * @param player Player to parse the placeholders against
+   * @param lookup Function used to find the expansion of an identifier
+   * @param visitor Visitor receiving the translated text
+   * @see #renderStyled(OfflinePlayer, StyleVisitor)
+   */
+  public void renderStyled(@Nullable final OfflinePlayer player,
+      @NotNull final Function<String, @Nullable PlaceholderExpansion> lookup,
+      @NotNull final StyleVisitor visitor) {
+    final LegacyText.Runs[] literalRuns = literalRuns();
+    literalRuns[0].visit(visitor);
+
+    for (int i = 0; i < placeholders.length; i++) {
+      final Placeholder placeholder = placeholders[i];
+      final PlaceholderExpansion expansion = lookup.apply(placeholder.identifier);
+
+      final String parameters = placeholder.nested == null ? placeholder.parameters
+          : placeholder.nested.render(player, lookup);
+
+      final String replacement = expansion == null ? null
+          : resolver.resolve(expansion, player, placeholder.view(parameters));
+
+      if (replacement == null) {
+        LegacyText.visit(placeholder.raw(parameters), visitor);
+      } else {
+        LegacyText.visit(replacement, colors, visitor);
+      }
+
+      literalRuns[i + 1].visit(visitor);
+    }
+  }
+
+  @NotNull
+  private LegacyText.Runs[] literalRuns() {
+    LegacyText.Runs[] runs = literalRuns;
+    if (runs == null) {
+      // literals never change, so only the replacements have to be scanned on every render
+      runs = new LegacyText.Runs[literals.length];
+      for (int i = 0; i < literals.length; i++) {
+        runs[i] = LegacyText.Runs.of(literals[i]);
+      }
+
+      literalRuns = runs;
+    }
+
+    return runs;
+  }
+
+  /**
+   * Translates all placeholders of this template for every provided player.
+   * <br>The expansions of the placeholders are only looked up once and the literal parts are
+   * shared between all players. Only the values of {@link PlaceholderScope#PER_PLAYER} placeholders
+   * are requested per player, all others are requested once for the first player.
+   *
+   * @param players Players to parse the placeholders against
+   * @return Map of the unique id of every player to its translated text, in iteration order of
+   *     the players
+   */
+  @NotNull
+  public Map<UUID, String> renderAll(@NotNull final Collection<? extends OfflinePlayer> players) {
+    return renderAll(players, lookup);
+  }
+
+  /**
+   * Translates all placeholders of this template for every provided player, using the provided
+   * lookup instead of the one this template was compiled with.
+   *
+   * @param players Players to parse the placeholders against
+   * @param lookup Function used to find the expansion of an identifier
+   * @return Map of the unique id of every player to its translated text, in iteration order of
+   *     the players
+   * @see #renderAll(Collection)
+   */
+  @NotNull
+  public Map<UUID, String> renderAll(@NotNull final Collection<? extends OfflinePlayer> players,
+      @NotNull final Function<String, @Nullable PlaceholderExpansion> lookup) {
+    final Map<UUID, String> rendered = new LinkedHashMap<>();
+
+    if (placeholders.length == 0) {
+      for (final OfflinePlayer player : players) {
+        rendered.put(player.getUniqueId(), literals[0]);
+      }
+
+      return rendered;
+    }
+
+    final PlaceholderExpansion[] expansions = new PlaceholderExpansion[placeholders.length];
+    for (int i = 0; i < placeholders.length; i++) {
+      expansions[i] = lookup.apply(placeholders[i].identifier);
+    }
+
+    final Iterator<? extends OfflinePlayer> iterator = players.iterator();
+    if (!iterator.hasNext()) {
+      return rendered;
+    }
+
+    // values which are the same for every player are shared by all of them
+    final String[] shared = new String[placeholders.length];
+    final OfflinePlayer first = iterator.next();
+
+    for (int i = 0; i < placeholders.length; i++) {
+      final Placeholder placeholder = placeholders[i];
+      final PlaceholderExpansion expansion = expansions[i];
+
+      if (expansion != null && placeholder.nested == null
+          && expansion.getScope(placeholder.parameters) != PlaceholderScope.PER_PLAYER) {
+        shared[i] = resolver.resolve(expansion, first, placeholder.view);
+        expansions[i] = null;
+      }
+    }
+
+    final StringBuilder builder = new StringBuilder(length);
+    for (final OfflinePlayer player : players) {
+      builder.setLength(0);
+      renderTo(player, expansions, shared, lookup, builder);
+
+      rendered.put(player.getUniqueId(), builder.toString());
+    }
+
+    return rendered;
+  }
+
+  /**
+   * Translates all placeholders of this template without requesting any values of expansions
+   * that aren't {@link ThreadSafe} on the current thread.
+   * <br>The values of {@link ThreadSafe} expansions are requested right away on the current
+   * thread, all others are requested in a single task run by the provided executor, which also
+   * completes the returned future.
+   *
+   * @param player Player to parse the placeholders against
+   * @param executor Executor to request the values of expansions that aren't thread safe on
+   * @return Future completed with the translated text
+   */
+  @NotNull
+  public CompletableFuture<String> renderAsync(@Nullable final OfflinePlayer player,
+      @NotNull final Executor executor) {
+    return renderAsync(player, lookup, executor);
+  }
+
+  /**
+   * Translates all placeholders of this template without requesting any values of expansions
+   * that aren't {@link ThreadSafe} on the current thread, using the provided lookup instead of
+   * the one this template was compiled with.
+   *
+   * @param player Player to parse the placeholders against
+   * @param lookup Function used to find the expansion of an identifier
+   * @param executor Executor to request the values of expansions that aren't thread safe on
+   * @return Future completed with the translated text
+   * @see #renderAsync(OfflinePlayer, Executor)
+   */
+  @NotNull
+  public CompletableFuture<String> renderAsync(@Nullable final OfflinePlayer player,
+      @NotNull final Function<String, @Nullable PlaceholderExpansion> lookup,
+      @NotNull final Executor executor) {
+    if (placeholders.length == 0) {
+      return CompletableFuture.completedFuture(literals[0]);
+    }
+
+    final PlaceholderExpansion[] expansions = new PlaceholderExpansion[placeholders.length];
+    final String[] parts = new String[placeholders.length];
+
+    boolean pending = false;
+    for (int i = 0; i < placeholders.length; i++) {
+      final Placeholder placeholder = placeholders[i];
+      final PlaceholderExpansion expansion = expansions[i] = lookup.apply(placeholder.identifier);
+
+      // nested parameters may contain placeholders of any expansion
+      if (placeholder.nested == null && (expansion == null || expansion instanceof ThreadSafe)) {
+        parts[i] = part(placeholder, expansion, player, placeholder.parameters);
+      } else {
+        pending = true;
+      }
+    }
+
+    if (!pending) {
+      return CompletableFuture.completedFuture(join(parts));
+    }
+
+    final Supplier<String> remaining = () -> {
+      for (int i = 0; i < placeholders.length; i++) {
+        if (parts[i] != null) {
+          continue;
+        }
+
+        final Placeholder placeholder = placeholders[i];
+        final String parameters = placeholder.nested == null ? placeholder.parameters
+            : placeholder.nested.render(player, lookup);
+
+        parts[i] = part(placeholder, expansions[i], player, parameters);
+      }
+
+      return join(parts);
+    };
+
+    // fails the future instead of leaving it incomplete if the task can't be scheduled
+    if (executor instanceof MainThreadExecutor) {
+      return ((MainThreadExecutor) executor).supply(remaining);
+    }
+
+    return CompletableFuture.supplyAsync(remaining, executor);
+  }
+
+  @NotNull
+  private String part(@NotNull final Placeholder placeholder,
+      @Nullable final PlaceholderExpansion expansion, @Nullable final OfflinePlayer player,
+      @NotNull final String parameters) {
+    final String replacement = expansion == null ? null
+        : resolver.resolve(expansion, player, placeholder.view(parameters));
+
+    if (replacement == null) {
+      return placeholder.raw(parameters);
+    }
+
+    return colors ? ChatColor.translateAlternateColorCodes('&', replacement) : replacement;
+  }
+
+  @NotNull
+  private String join(@NotNull final String[] parts) {
+    final StringBuilder builder = new StringBuilder(length);
+    builder.append(literals[0]);
+
+    for (int i = 0; i < parts.length; i++) {
+      builder.append(parts[i]).append(literals[i + 1]);
+    }
+
+    return builder.toString();
+  }
+
+  private void renderTo(@Nullable final OfflinePlayer player,
+      @Nullable final PlaceholderExpansion[] expansions, @Nullable final String[] shared,
+      @NotNull final Function<String, @Nullable PlaceholderExpansion> lookup,
+      @NotNull final StringBuilder builder) {
+    builder.append(literals[0]);
+
+    for (int i = 0; i < placeholders.length; i++) {
+      final Placeholder placeholder = placeholders[i];
+      final PlaceholderExpansion expansion =
+          expansions == null ? lookup.apply(placeholder.identifier) : expansions[i];
+
+      final String parameters = placeholder.nested == null ? placeholder.parameters
+          : placeholder.nested.render(player, lookup);
+
+      final String replacement;
+      if (shared != null && shared[i] != null) {
+        replacement = shared[i];
+      } else {
+        replacement = expansion == null ? null
+            : resolver.resolve(expansion, player, placeholder.view(parameters));
+      }
+
+      if (replacement == null) {
+        placeholder.appendRaw(builder, parameters);
+      } else if (colors) {
+        builder.append(ChatColor.translateAlternateColorCodes('&', replacement));
+      } else {
+        builder.append(replacement);
+      }
+
+      builder.append(literals[i + 1]);
+    }
+  }
+
+  @Override
+  public String toString() {
+    return "PlaceholderTemplate[text: '" + text + "', placeholders: " + placeholders.length + "]";
+  }
+
+
+  static final class Placeholder {
+
+    @NotNull
+    final Closure closure;
+    @NotNull
+    final String identifier;
+    @NotNull
+    final String parameters;
+    /**
+     * The parameters as a template if they contain nested placeholders, null otherwise
+     */
+    @Nullable
+    final PlaceholderTemplate nested;
+    final boolean identified;
+    @NotNull
+    final String raw;
+    /**
+     * The parameters passed to the expansion, reused for every render if they aren't nested
+     */
+    @NotNull
+    final PlaceholderParameters view;
+
+
+    Placeholder(@NotNull final Closure closure, @NotNull final String identifier,
+        @NotNull final String parameters, @Nullable final PlaceholderTemplate nested,
+        final boolean identified) {
+      this.closure = closure;
+      this.identifier = identifier;
+      this.parameters = parameters;
+      this.nested = nested;
+      this.identified = identified;
+      this.raw = closure.head + identifier + (identified ? "_" : "") + parameters + closure.tail;
+      this.view = PlaceholderParameters.of(parameters);
+    }
+
+    @NotNull
+    PlaceholderParameters view(@NotNull final String parameters) {
+      return nested == null ? view : PlaceholderParameters.of(parameters);
+    }
+
+    @NotNull
+    String raw(@NotNull final String parameters) {
+      if (nested == null) {
+        return raw;
+      }
+
+      final StringBuilder builder = new StringBuilder();
+      appendRaw(builder, parameters);
+
+      return builder.toString();
+    }
+
+    void appendRaw(@NotNull final StringBuilder builder, @NotNull final String parameters) {
+      if (nested == null) {
+        builder.append(raw);
+        return;
+      }
+
+      builder.append(closure.head).append(identifier);
+
+      if (identified) {
+        builder.append('_');
+      }
+
+      builder.append(parameters).append(closure.tail);
+    }
+  }
+
+}
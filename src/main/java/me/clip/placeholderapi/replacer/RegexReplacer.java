@@ -24,6 +24,7 @@ import java.util.function.Function;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import me.clip.placeholderapi.expansion.PlaceholderExpansion;
+import me.clip.placeholderapi.expansion.PlaceholderParameters;
 import org.bukkit.ChatColor;
 import org.bukkit.OfflinePlayer;
 import org.jetbrains.annotations.NotNull;
@@ -33,8 +34,21 @@ public final class RegexReplacer implements Replacer {
 
   @NotNull
   private final Pattern pattern;
+  @NotNull
+  private final Resolver resolver;
 
   public RegexReplacer(@NotNull final Closure closure) {
+    this(closure, Resolver.DIRECT);
+  }
+
+  /**
+   * Creates a replacer which requests the values of placeholders through the provided resolver.
+   *
+   * @param closure The closure to translate placeholders of
+   * @param resolver The resolver used to request the values of placeholders
+   */
+  public RegexReplacer(@NotNull final Closure closure, @NotNull final Resolver resolver) {
+    this.resolver = resolver;
     this.pattern = Pattern.compile(String
         .format("\\%s((?<identifier>[a-zA-Z0-9]+)_)(?<parameters>[^%s%s]+)\\%s", closure.head,
             closure.head, closure.tail, closure.tail));
@@ -61,7 +75,8 @@ public final class RegexReplacer implements Replacer {
         continue;
       }
 
-      final String requested = expansion.onRequest(player, parameters);
+      final String requested =
+          resolver.resolve(expansion, player, PlaceholderParameters.of(parameters));
       matcher.appendReplacement(builder, requested != null ? requested : matcher.group(0));
     }
     while (matcher.find());
@@ -0,0 +1,125 @@
+/*
+ * This file is part of PlaceholderAPI
+ *
+ * PlaceholderAPI
+ * Copyright (c) 2015 - 2021 PlaceholderAPI Team
+ *
+ * PlaceholderAPI is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PlaceholderAPI is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package me.clip.placeholderapi.replacer;
+
+import java.util.function.Function;
+import me.clip.placeholderapi.expansion.PlaceholderExpansion;
+import me.clip.placeholderapi.expansion.Relational;
+import me.clip.placeholderapi.replacer.Replacer.Closure;
+import org.bukkit.ChatColor;
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Translates relational placeholders, {@literal %rel_<identifier>_<params>%}, in a single scan of
+ * the text.
+ * <br>Unlike the other replacers, the value of a relational placeholder depends on two players,
+ * so it doesn't share the {@link Replacer} signature.
+ */
+public final class RelationalReplacer {
+
+  @NotNull
+  private static final String HEAD = Closure.PERCENT.head + "rel_";
+
+  @NotNull
+  private final RelationalResolver resolver;
+
+
+  /**
+   * Creates a replacer which calls the expansions directly.
+   */
+  public RelationalReplacer() {
+    this(RelationalResolver.DIRECT);
+  }
+
+  /**
+   * Creates a replacer which requests the values of placeholders through the provided resolver.
+   *
+   * @param resolver The resolver used to request the values of placeholders
+   */
+  public RelationalReplacer(@NotNull final RelationalResolver resolver) {
+    this.resolver = resolver;
+  }
+
+  /**
+   * Translates all relational placeholders of the text into their corresponding values and
+   * translates the color codes of the result.
+   * <br>Placeholders of expansions that aren't {@link Relational}, or that return null, are left
+   * as they are.
+   *
+   * @param text Text to set the placeholder values in
+   * @param one First player of the relation
+   * @param two Second player of the relation
+   * @param lookup Function used to find the expansion of an identifier
+   * @return String containing all translated placeholders
+   */
+  @NotNull
+  public String apply(@NotNull final String text, @Nullable final Player one,
+      @Nullable final Player two,
+      @NotNull final Function<String, @Nullable PlaceholderExpansion> lookup) {
+    int head = text.indexOf(HEAD);
+    if (head == -1) {
+      return ChatColor.translateAlternateColorCodes('&', text);
+    }
+
+    final StringBuilder builder = new StringBuilder(text.length());
+
+    int i = 0;
+    while (head != -1) {
+      final int start = head + HEAD.length();
+
+      final int tail = text.indexOf(Closure.PERCENT.tail, start);
+      if (tail == -1) {
+        break;
+      }
+
+      // an empty placeholder, its tail may still be the head of the next one
+      if (tail == start) {
+        head = text.indexOf(HEAD, tail);
+        continue;
+      }
+
+      final int underscore = text.indexOf('_', start);
+      if (underscore > start && underscore < tail) {
+        final PlaceholderExpansion expansion =
+            lookup.apply(text.substring(start, underscore).toLowerCase());
+
+        if (expansion instanceof Relational) {
+          final String value =
+              resolver.resolve(expansion, one, two, text.substring(underscore + 1, tail));
+
+          if (value != null) {
+            builder.append(text, i, head).append(value);
+            i = tail + 1;
+          }
+        }
+      }
+
+      head = text.indexOf(HEAD, tail + 1);
+    }
+
+    builder.append(text, i, text.length());
+
+    return ChatColor.translateAlternateColorCodes('&', builder.toString());
+  }
+
+}
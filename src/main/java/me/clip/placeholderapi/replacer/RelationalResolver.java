@@ -0,0 +1,55 @@
+/*
+ * This file is part of PlaceholderAPI
+ *
+ * PlaceholderAPI
+ * Copyright (c) 2015 - 2021 PlaceholderAPI Team
+ *
+ * PlaceholderAPI is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PlaceholderAPI is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package me.clip.placeholderapi.replacer;
+
+import me.clip.placeholderapi.expansion.PlaceholderExpansion;
+import me.clip.placeholderapi.expansion.Relational;
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Requests the value of a relational placeholder from the expansion it belongs to, the
+ * relational counterpart of {@link Resolver}.
+ */
+@FunctionalInterface
+public interface RelationalResolver {
+
+  /**
+   * Calls {@link Relational#onPlaceholderRequest} directly, without any additional handling
+   */
+  @NotNull
+  RelationalResolver DIRECT = (expansion, one, two, params) ->
+      ((Relational) expansion).onPlaceholderRequest(one, two, params);
+
+
+  /**
+   * @param expansion The expansion of the placeholder, which is {@link Relational}
+   * @param one First player of the relation
+   * @param two Second player of the relation
+   * @param params The parameters of the placeholder
+   * @return The value of the placeholder, or null if the parameters are invalid
+   */
+  @Nullable
+  String resolve(@NotNull final PlaceholderExpansion expansion, @Nullable final Player one,
+      @Nullable final Player two, @NotNull final String params);
+
+}
@@ -32,6 +32,21 @@ public interface Replacer {
   String apply(@NotNull final String text, @Nullable final OfflinePlayer player,
       @NotNull final Function<String, @Nullable PlaceholderExpansion> lookup);
 
+  /**
+   * Translates the placeholders of the text and appends the result to the provided builder,
+   * instead of returning it as a new String.
+   *
+   * @param text Text to set the placeholder values in
+   * @param player Player to parse the placeholders against
+   * @param lookup Function used to find the expansion of an identifier
+   * @param builder Builder the translated text is appended to
+   */
+  default void applyTo(@NotNull final CharSequence text, @Nullable final OfflinePlayer player,
+      @NotNull final Function<String, @Nullable PlaceholderExpansion> lookup,
+      @NotNull final StringBuilder builder) {
+    builder.append(apply(text.toString(), player, lookup));
+  }
+
 
   enum Closure {
     BRACKET('{', '}'),
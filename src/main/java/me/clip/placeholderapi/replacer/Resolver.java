@@ -0,0 +1,49 @@
+/*
+ * This file is part of PlaceholderAPI
+ *
+ * PlaceholderAPI
+ * Copyright (c) 2015 - 2021 PlaceholderAPI Team
+ *
+ * PlaceholderAPI is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PlaceholderAPI is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package me.clip.placeholderapi.replacer;
+
+import me.clip.placeholderapi.expansion.PlaceholderExpansion;
+import me.clip.placeholderapi.expansion.PlaceholderParameters;
+import org.bukkit.OfflinePlayer;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Requests the value of a placeholder from the expansion it belongs to.
+ * <br>The replacers and templates never call {@link PlaceholderExpansion#onRequest} themselves,
+ * which allows the plugin to put its own handling, like caching, in between.
+ */
+@FunctionalInterface
+public interface Resolver {
+
+  /**
+   * Calls {@link PlaceholderExpansion#onParametersRequest} directly, without any additional
+   * handling
+   */
+  @NotNull
+  Resolver DIRECT = PlaceholderExpansion::onParametersRequest;
+
+
+  @Nullable
+  String resolve(@NotNull final PlaceholderExpansion expansion,
+      @Nullable final OfflinePlayer player, @NotNull final PlaceholderParameters params);
+
+}
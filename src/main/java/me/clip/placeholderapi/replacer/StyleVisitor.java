@@ -0,0 +1,59 @@
+/*
+ * This file is part of PlaceholderAPI
+ *
+ * PlaceholderAPI
+ * Copyright (c) 2015 - 2021 PlaceholderAPI Team
+ *
+ * PlaceholderAPI is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PlaceholderAPI is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package me.clip.placeholderapi.replacer;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Receives a text as runs of plain text and the formatting codes between them, instead of as a
+ * single String containing legacy formatting codes.
+ * <br>This allows building rich text, like Adventure Components, directly from a rendered
+ * template, without serializing it to a legacy String and parsing that String again.
+ *
+ * @see PlaceholderTemplate#renderStyled(org.bukkit.OfflinePlayer, StyleVisitor)
+ * @see LegacyText#visit(CharSequence, StyleVisitor)
+ */
+public interface StyleVisitor {
+
+  /**
+   * Called for a run of text without any formatting codes.
+   *
+   * @param text The text containing the run
+   * @param start The index of the first character of the run
+   * @param end The index after the last character of the run
+   */
+  void text(@NotNull final CharSequence text, final int start, final int end);
+
+  /**
+   * Called for a legacy formatting code, like a color or a decoration.
+   *
+   * @param code The lowercase code, one of {@code 0-9}, {@code a-f}, {@code k-o} or {@code r}
+   */
+  void format(final char code);
+
+  /**
+   * Called for a hex color.
+   *
+   * @param rgb The red, green and blue components of the color in its lowest 24 bits
+   */
+  void color(final int rgb);
+
+}
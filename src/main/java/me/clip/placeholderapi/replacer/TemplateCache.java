@@ -0,0 +1,262 @@
+/*
+ * This file is part of PlaceholderAPI
+ *
+ * PlaceholderAPI
+ * Copyright (c) 2015 - 2021 PlaceholderAPI Team
+ *
+ * PlaceholderAPI is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PlaceholderAPI is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package me.clip.placeholderapi.replacer;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import me.clip.placeholderapi.expansion.PlaceholderExpansion;
+import org.bukkit.OfflinePlayer;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Replacer which keeps the {@link PlaceholderTemplate templates} of the texts it parsed in a
+ * bounded cache, so every distinct text is only scanned once by its {@link CharsReplacer}.
+ * <br>The least recently used templates are evicted once the maximum size is reached. A maximum
+ * size of 0 or less disables the cache and parses every text directly.
+ * <br>The replacer and the cache are published together, and invalidating swaps in a new cache
+ * instead of clearing the current one. A template compiled while the replacer is replaced or the
+ * cache is invalidated can only end up in the discarded cache, never in the one used afterwards.
+ */
+public final class TemplateCache implements Replacer {
+
+  @NotNull
+  private static final CacheStats EMPTY_STATS = new CacheStats(0, 0, 0, 0, 0, 0);
+
+  @NotNull
+  private volatile State state;
+  /**
+   * The statistics of the caches discarded by invalidations since the last resize
+   */
+  @NotNull
+  private volatile CacheStats retired = EMPTY_STATS;
+
+
+  public TemplateCache(@NotNull final CharsReplacer replacer, final long maximumSize) {
+    this.state = new State(replacer, maximumSize);
+  }
+
+
+  @NotNull
+  @Override
+  public String apply(@NotNull final String text, @Nullable final OfflinePlayer player,
+      @NotNull final Function<String, @Nullable PlaceholderExpansion> lookup) {
+    final State state = this.state;
+    if (state.cache == null || !state.replacer.hasCandidates(text)) {
+      return state.replacer.apply(text, player, lookup);
+    }
+
+    return template(state, state.cache, text, lookup).render(player, lookup);
+  }
+
+  @Override
+  public void applyTo(@NotNull final CharSequence text, @Nullable final OfflinePlayer player,
+      @NotNull final Function<String, @Nullable PlaceholderExpansion> lookup,
+      @NotNull final StringBuilder builder) {
+    final State state = this.state;
+    if (state.cache == null) {
+      state.replacer.applyTo(text, player, lookup, builder);
+      return;
+    }
+
+    template(state, state.cache, text.toString(), lookup).renderTo(player, lookup, builder);
+  }
+
+  /**
+   * Translates the placeholders of all provided texts, like calling
+   * {@link #apply(String, OfflinePlayer, Function)} for each of them, but reusing a single builder
+   * for all texts.
+   *
+   * @param texts Texts to set the placeholder values in
+   * @param player Player to parse the placeholders against
+   * @param lookup Function used to find the expansion of an identifier
+   * @return List of the translated texts, in the same order
+   */
+  @NotNull
+  public List<String> applyAll(@NotNull final List<String> texts,
+      @Nullable final OfflinePlayer player,
+      @NotNull final Function<String, @Nullable PlaceholderExpansion> lookup) {
+    final State state = this.state;
+    final CharsReplacer replacer = state.replacer;
+    final Cache<String, PlaceholderTemplate> cache = state.cache;
+
+    final List<String> applied = new ArrayList<>(texts.size());
+    final StringBuilder builder = new StringBuilder();
+
+    for (final String text : texts) {
+      if (!replacer.hasCandidates(text)) {
+        applied.add(text);
+        continue;
+      }
+
+      builder.setLength(0);
+
+      if (cache == null) {
+        replacer.applyTo(text, player, lookup, builder);
+      } else {
+        template(state, cache, text, lookup).renderTo(player, lookup, builder);
+      }
+
+      applied.add(builder.toString());
+    }
+
+    return applied;
+  }
+
+  /**
+   * Gets the cached template of the text, or parses it if it isn't cached yet.
+   *
+   * @param text Text to get the template of
+   * @param lookup Function used to find the expansion of an identifier when rendering
+   * @return The template of the text
+   */
+  @NotNull
+  public PlaceholderTemplate template(@NotNull final String text,
+      @NotNull final Function<String, @Nullable PlaceholderExpansion> lookup) {
+    final State state = this.state;
+    if (state.cache == null) {
+      return state.replacer.compile(text, lookup);
+    }
+
+    return template(state, state.cache, text, lookup);
+  }
+
+  /**
+   * @param cache The cache of the state, passed separately since it is known to be present
+   */
+  @NotNull
+  private static PlaceholderTemplate template(@NotNull final State state,
+      @NotNull final Cache<String, PlaceholderTemplate> cache,
+      @NotNull final String text,
+      @NotNull final Function<String, @Nullable PlaceholderExpansion> lookup) {
+    final PlaceholderTemplate template = cache.getIfPresent(text);
+    if (template != null) {
+      return template;
+    }
+
+    // concurrent misses of the same text share the template stored first
+    final PlaceholderTemplate compiled = state.replacer.compile(text, lookup);
+    final PlaceholderTemplate existing = cache.asMap().putIfAbsent(text, compiled);
+
+    return existing == null ? compiled : existing;
+  }
+
+  /**
+   * The replacer used to parse the texts of this cache
+   *
+   * @return the backing replacer
+   */
+  @NotNull
+  public CharsReplacer getReplacer() {
+    return state.replacer;
+  }
+
+  /**
+   * Replaces the replacer used to parse texts and discards all templates parsed by the previous
+   * one.
+   *
+   * @param replacer The replacer to parse texts with from now on
+   */
+  public synchronized void setReplacer(@NotNull final CharsReplacer replacer) {
+    retire();
+    this.state = new State(replacer, state.maximumSize);
+  }
+
+  /**
+   * Replaces the backing cache with an empty one of the provided maximum size.
+   *
+   * @param maximumSize Maximum amount of templates to keep, 0 or less disables the cache
+   */
+  public synchronized void resize(final long maximumSize) {
+    this.retired = EMPTY_STATS;
+    this.state = new State(state.replacer, maximumSize);
+  }
+
+  /**
+   * Discards all cached templates.
+   */
+  public synchronized void invalidateAll() {
+    final State state = this.state;
+    if (state.cache != null) {
+      retire();
+      this.state = new State(state.replacer, state.maximumSize);
+    }
+  }
+
+  /**
+   * Keeps the statistics of the current cache before it is discarded.
+   */
+  private void retire() {
+    final Cache<String, PlaceholderTemplate> cache = state.cache;
+    if (cache != null) {
+      retired = retired.plus(cache.stats());
+    }
+  }
+
+  /**
+   * The amount of templates currently cached
+   *
+   * @return amount of cached templates
+   */
+  public long size() {
+    final Cache<String, PlaceholderTemplate> cache = state.cache;
+    return cache == null ? 0 : cache.size();
+  }
+
+  /**
+   * The hit, miss and eviction counters of the cache since it was last resized
+   *
+   * @return statistics of the cache
+   */
+  @NotNull
+  public CacheStats stats() {
+    final Cache<String, PlaceholderTemplate> cache = state.cache;
+    return cache == null ? retired : retired.plus(cache.stats());
+  }
+
+
+  /**
+   * The replacer together with the cache of the templates it compiled
+   */
+  private static final class State {
+
+    @NotNull
+    private final CharsReplacer replacer;
+    @Nullable
+    private final Cache<String, PlaceholderTemplate> cache;
+    private final long maximumSize;
+
+
+    private State(@NotNull final CharsReplacer replacer, final long maximumSize) {
+      this.replacer = replacer;
+      this.maximumSize = maximumSize;
+      this.cache = maximumSize <= 0 ? null : CacheBuilder.newBuilder()
+          .maximumSize(maximumSize)
+          .recordStats()
+          .build();
+    }
+  }
+
+}
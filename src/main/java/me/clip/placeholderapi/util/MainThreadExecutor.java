@@ -0,0 +1,197 @@
+/*
+ * This file is part of PlaceholderAPI
+ *
+ * PlaceholderAPI
+ * Copyright (c) 2015 - 2021 PlaceholderAPI Team
+ *
+ * PlaceholderAPI is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PlaceholderAPI is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package me.clip.placeholderapi.util;
+
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import org.bukkit.Bukkit;
+import org.bukkit.plugin.Plugin;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Runs tasks on the main server thread, batching all tasks submitted from other threads during a
+ * tick into a single scheduled task.
+ * <br>If the task can't be scheduled, for example because the plugin is being disabled, all
+ * queued tasks are dropped:
+ * <ul>
+ *   <li>the futures of {@link #supply} are completed exceptionally, so nothing waits for a task
+ *   that will never run</li>
+ *   <li>{@link #execute} throws a {@link RejectedExecutionException} for the task it was called
+ *   with</li>
+ *   <li>tasks queued by earlier calls of {@link #execute} were already accepted, they are only
+ *   counted in a warning logged by the plugin</li>
+ * </ul>
+ */
+public final class MainThreadExecutor implements Executor {
+
+  @NotNull
+  private final Plugin plugin;
+  @NotNull
+  private final BooleanSupplier primaryThread;
+  @NotNull
+  private final Consumer<Runnable> scheduler;
+
+  @NotNull
+  private final Queue<Task> tasks = new ConcurrentLinkedQueue<>();
+  @NotNull
+  private final AtomicBoolean scheduled = new AtomicBoolean();
+
+
+  public MainThreadExecutor(@NotNull final Plugin plugin) {
+    this(plugin, Bukkit::isPrimaryThread, task -> Bukkit.getScheduler().runTask(plugin, task));
+  }
+
+  MainThreadExecutor(@NotNull final Plugin plugin, @NotNull final BooleanSupplier primaryThread,
+      @NotNull final Consumer<Runnable> scheduler) {
+    this.plugin = plugin;
+    this.primaryThread = primaryThread;
+    this.scheduler = scheduler;
+  }
+
+
+  /**
+   * Runs the task on the main thread, right away if this is the main thread.
+   *
+   * @throws RejectedExecutionException if the task can't be scheduled, other tasks dropped with
+   * it are only logged
+   */
+  @Override
+  public void execute(@NotNull final Runnable task) {
+    if (primaryThread.getAsBoolean()) {
+      task.run();
+      return;
+    }
+
+    if (!submit(new Task(task, null))) {
+      throw new RejectedExecutionException("failed to schedule main thread task");
+    }
+  }
+
+  /**
+   * Supplies a value on the main thread, right away if this is the main thread.
+   *
+   * @param supplier Supplier of the value
+   * @return Future completed with the value, or exceptionally if the supplier threw or the task
+   * couldn't be scheduled
+   */
+  @NotNull
+  public <T> CompletableFuture<T> supply(@NotNull final Supplier<T> supplier) {
+    final CompletableFuture<T> future = new CompletableFuture<>();
+    final Runnable task = () -> {
+      try {
+        future.complete(supplier.get());
+      } catch (final Throwable ex) {
+        future.completeExceptionally(ex);
+      }
+    };
+
+    if (primaryThread.getAsBoolean()) {
+      task.run();
+    } else {
+      // a rejected task has already completed the future exceptionally
+      submit(new Task(task, future));
+    }
+
+    return future;
+  }
+
+  /**
+   * Runs all tasks submitted so far on the current thread.
+   */
+  public void drain() {
+    scheduled.set(false);
+
+    Task task;
+    while ((task = tasks.poll()) != null) {
+      try {
+        task.runnable.run();
+      } catch (final RuntimeException ex) {
+        plugin.getLogger().log(Level.WARNING, "failed to run main thread task", ex);
+      }
+    }
+  }
+
+  /**
+   * Queues the task and schedules a drain if none is scheduled yet.
+   *
+   * @return false if the drain couldn't be scheduled, all queued tasks were rejected then
+   */
+  private boolean submit(@NotNull final Task task) {
+    tasks.add(task);
+
+    if (!scheduled.compareAndSet(false, true)) {
+      return true;
+    }
+
+    try {
+      scheduler.accept(this::drain);
+      return true;
+    } catch (final RuntimeException ex) {
+      scheduled.set(false);
+      reject(ex);
+      return false;
+    }
+  }
+
+  private void reject(@NotNull final RuntimeException cause) {
+    int dropped = 0;
+
+    Task task;
+    while ((task = tasks.poll()) != null) {
+      if (task.future != null) {
+        task.future.completeExceptionally(
+            new RejectedExecutionException("failed to schedule main thread task", cause));
+      } else {
+        dropped++;
+      }
+    }
+
+    if (dropped > 0) {
+      plugin.getLogger().log(Level.WARNING,
+          "failed to schedule main thread tasks, dropped " + dropped + " of them", cause);
+    }
+  }
+
+
+  private static final class Task {
+
+    @NotNull
+    private final Runnable runnable;
+    @Nullable
+    private final CompletableFuture<?> future;
+
+
+    private Task(@NotNull final Runnable runnable, @Nullable final CompletableFuture<?> future) {
+      this.runnable = runnable;
+      this.future = future;
+    }
+  }
+
+}
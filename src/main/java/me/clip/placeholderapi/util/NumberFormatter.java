@@ -0,0 +1,99 @@
+/*
+ * This file is part of PlaceholderAPI
+ *
+ * PlaceholderAPI
+ * Copyright (c) 2015 - 2021 PlaceholderAPI Team
+ *
+ * PlaceholderAPI is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PlaceholderAPI is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package me.clip.placeholderapi.util;
+
+import java.text.DecimalFormat;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Formats numbers with a {@link DecimalFormat} pattern for whole numbers and one for numbers with
+ * a fraction.
+ * <br>{@link DecimalFormat} isn't thread safe, so every thread gets its own copy of the formats,
+ * created once and reused for every number it formats afterwards. Small whole numbers are
+ * formatted in advance.
+ */
+public final class NumberFormatter {
+
+  private static final int CACHED = 256;
+
+
+  @NotNull
+  private final String integerPattern;
+  @NotNull
+  private final String decimalPattern;
+
+  @NotNull
+  private final ThreadLocal<DecimalFormat> integer;
+  @NotNull
+  private final ThreadLocal<DecimalFormat> decimal;
+
+  @NotNull
+  private final String[] cached = new String[CACHED];
+
+
+  /**
+   * @param integerPattern Pattern of whole numbers
+   * @param decimalPattern Pattern of numbers with a fraction
+   * @throws IllegalArgumentException if either pattern is invalid
+   */
+  public NumberFormatter(@NotNull final String integerPattern,
+      @NotNull final String decimalPattern) {
+    this.integerPattern = integerPattern;
+    this.decimalPattern = decimalPattern;
+
+    // create them once right away, so invalid patterns fail here instead of when formatting
+    final DecimalFormat integerFormat = new DecimalFormat(integerPattern);
+    new DecimalFormat(decimalPattern);
+
+    for (int i = 0; i < CACHED; i++) {
+      cached[i] = integerFormat.format(i);
+    }
+
+    this.integer = ThreadLocal.withInitial(() -> new DecimalFormat(integerPattern));
+    this.decimal = ThreadLocal.withInitial(() -> new DecimalFormat(decimalPattern));
+  }
+
+
+  @NotNull
+  public String getIntegerPattern() {
+    return integerPattern;
+  }
+
+  @NotNull
+  public String getDecimalPattern() {
+    return decimalPattern;
+  }
+
+  @NotNull
+  public String format(final long value) {
+    if (value >= 0 && value < CACHED) {
+      return cached[(int) value];
+    }
+
+    return integer.get().format(value);
+  }
+
+  @NotNull
+  public String format(final double value) {
+    return decimal.get().format(value);
+  }
+
+}
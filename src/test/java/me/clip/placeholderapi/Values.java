@@ -21,11 +21,25 @@
 package me.clip.placeholderapi;
 
 import com.google.common.collect.ImmutableMap;
+import java.lang.reflect.Proxy;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
 import me.clip.placeholderapi.expansion.PlaceholderExpansion;
+import me.clip.placeholderapi.expansion.PlaceholderParameters;
+import me.clip.placeholderapi.expansion.PlaceholderScope;
+import me.clip.placeholderapi.expansion.Relational;
 import me.clip.placeholderapi.replacer.CharsReplacer;
+import me.clip.placeholderapi.replacer.IdentifierTrie;
 import me.clip.placeholderapi.replacer.RegexReplacer;
+import me.clip.placeholderapi.replacer.RelationalReplacer;
 import me.clip.placeholderapi.replacer.Replacer;
 import org.bukkit.OfflinePlayer;
+import org.bukkit.entity.Player;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -33,14 +47,46 @@ public interface Values {
 
   String SMALL_TEXT = "My name is %player_name%";
   String LARGE_TEXT = "My name is %player_name% and my location is (%player_x%, %player_y%, %player_z%), this placeholder is invalid %server_name%";
+  String PLAIN_TEXT = "Welcome to the server, make sure to read the rules before you start playing!";
+  String MIXED_TEXT = "My name is %player_name% and my location is ({player_x}, {player_y}, {player_z})";
+  String NESTED_TEXT = "My name is %player_upper_{player_name}% and my location is {player_x}";
+  String RELATIONAL_TEXT = "%rel_relation_friend% &7%player_name% is %rel_relation_enemy%, not %rel_relation_friend%";
+  String STYLED_TEXT = "&x123456Hex &lbold %player_name%&r, done &zno %player_upper_&ared% %unknown_&a%";
+  String PLAIN_COLORED_TEXT = "&aWelcome to the &lserver&r&a, make sure to read the &crules &abefore you start playing!";
 
   ImmutableMap<String, PlaceholderExpansion> PLACEHOLDERS = ImmutableMap.<String, PlaceholderExpansion>builder()
       .put("player", new MockPlayerPlaceholderExpansion())
+      .put("relation", new MockRelationalPlaceholderExpansion())
+      .put("counter", new MockCounterPlaceholderExpansion())
+      .put("segments", new MockSegmentsPlaceholderExpansion())
       .build();
 
+  IdentifierTrie PLACEHOLDER_TRIE = IdentifierTrie.of(PLACEHOLDERS);
 
-  Replacer CHARS_REPLACER = new CharsReplacer(Replacer.Closure.PERCENT);
+
+  CharsReplacer CHARS_REPLACER = new CharsReplacer(Replacer.Closure.PERCENT);
+  CharsReplacer CHARS_REPLACER_BRACKET = new CharsReplacer(Replacer.Closure.BRACKET);
+  CharsReplacer CHARS_REPLACER_COMBINED = new CharsReplacer(EnumSet.allOf(Replacer.Closure.class));
+  CharsReplacer CHARS_REPLACER_NESTED = new CharsReplacer(EnumSet.allOf(Replacer.Closure.class), 2);
   Replacer REGEX_REPLACER = new RegexReplacer(Replacer.Closure.PERCENT);
+  RelationalReplacer RELATIONAL_REPLACER = new RelationalReplacer();
+
+
+  static OfflinePlayer mockPlayer(@NotNull final UUID uuid) {
+    return (OfflinePlayer) Proxy.newProxyInstance(OfflinePlayer.class.getClassLoader(),
+        new Class<?>[]{OfflinePlayer.class}, (proxy, method, args) -> {
+          switch (method.getName()) {
+            case "getUniqueId":
+              return uuid;
+            case "hashCode":
+              return uuid.hashCode();
+            case "equals":
+              return proxy == args[0];
+            default:
+              return null;
+          }
+        });
+  }
 
 
   final class MockPlayerPlaceholderExpansion extends PlaceholderExpansion {
@@ -85,6 +131,8 @@ public interface Values {
           return PLAYER_Y;
         case "z":
           return PLAYER_Z;
+        case "upper":
+          return params.substring(parts[0].length() + 1).toUpperCase();
       }
 
       return null;
@@ -92,4 +140,165 @@ public interface Values {
 
   }
 
+  final class MockRelationalPlaceholderExpansion extends PlaceholderExpansion implements Relational {
+
+    public static final String RELATION_FRIEND = "&afriend";
+
+
+    @NotNull
+    @Override
+    public String getIdentifier() {
+      return "relation";
+    }
+
+    @NotNull
+    @Override
+    public String getAuthor() {
+      return "Sxtanna";
+    }
+
+    @NotNull
+    @Override
+    public String getVersion() {
+      return "1.0";
+    }
+
+    @Override
+    public String onPlaceholderRequest(final Player one, final Player two, final String identifier) {
+      return "friend".equals(identifier) ? RELATION_FRIEND : null;
+    }
+
+  }
+
+  final class MockCounterPlaceholderExpansion extends PlaceholderExpansion {
+
+    private final AtomicInteger requests = new AtomicInteger();
+
+
+    @NotNull
+    @Override
+    public String getIdentifier() {
+      return "counter";
+    }
+
+    @NotNull
+    @Override
+    public String getAuthor() {
+      return "Sxtanna";
+    }
+
+    @NotNull
+    @Override
+    public String getVersion() {
+      return "1.0";
+    }
+
+    @NotNull
+    @Override
+    public PlaceholderScope getScope(@NotNull final String params) {
+      return params.startsWith("global") ? PlaceholderScope.GLOBAL : PlaceholderScope.PER_PLAYER;
+    }
+
+    @Override
+    public String onRequest(@Nullable final OfflinePlayer player, @NotNull final String params) {
+      return String.valueOf(requests.incrementAndGet());
+    }
+
+    public int getRequests() {
+      return requests.get();
+    }
+
+  }
+
+  final class MockSegmentsPlaceholderExpansion extends PlaceholderExpansion {
+
+    @NotNull
+    @Override
+    public String getIdentifier() {
+      return "segments";
+    }
+
+    @NotNull
+    @Override
+    public String getAuthor() {
+      return "Sxtanna";
+    }
+
+    @NotNull
+    @Override
+    public String getVersion() {
+      return "1.0";
+    }
+
+    @Override
+    public String onParametersRequest(@Nullable final OfflinePlayer player,
+        @NotNull final PlaceholderParameters params) {
+      if (params.is(0, "size")) {
+        return String.valueOf(params.size());
+      }
+      if (params.isIgnoreCase(0, "rest")) {
+        return params.from(1);
+      }
+
+      return params.get(1);
+    }
+
+  }
+
+  final class MockNamedPlaceholderExpansion extends PlaceholderExpansion {
+
+    @NotNull
+    private final String identifier;
+
+
+    public MockNamedPlaceholderExpansion(@NotNull final String identifier) {
+      this.identifier = identifier;
+    }
+
+
+    @NotNull
+    @Override
+    public String getIdentifier() {
+      return identifier;
+    }
+
+    @NotNull
+    @Override
+    public String getAuthor() {
+      return "Sxtanna";
+    }
+
+    @NotNull
+    @Override
+    public String getVersion() {
+      return "1.0";
+    }
+
+    @Override
+    public String onRequest(@Nullable final OfflinePlayer player, @NotNull final String params) {
+      return identifier;
+    }
+
+  }
+
+  final class RecordingLogger extends Logger {
+
+    private final List<LogRecord> records = new CopyOnWriteArrayList<>();
+
+
+    public RecordingLogger() {
+      super("PlaceholderAPI", null);
+    }
+
+    @Override
+    public void log(final LogRecord record) {
+      records.add(record);
+    }
+
+    public List<LogRecord> getRecords() {
+      return records;
+    }
+
+  }
+
 }
@@ -0,0 +1,135 @@
+/*
+ * This file is part of PlaceholderAPI
+ *
+ * PlaceholderAPI
+ * Copyright (c) 2015 - 2021 PlaceholderAPI Team
+ *
+ * PlaceholderAPI free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PlaceholderAPI is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package me.clip.placeholderapi.expansion.manager;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import me.clip.placeholderapi.Values;
+import me.clip.placeholderapi.expansion.PlaceholderExpansion;
+import me.clip.placeholderapi.expansion.PlaceholderParameters;
+import org.junit.jupiter.api.Test;
+
+public final class CircuitBreakerUnitTester {
+
+  private final PlaceholderExpansion expansion = Values.PLACEHOLDERS.get("counter");
+  private final PlaceholderParameters params = PlaceholderParameters.of("value");
+
+  private final Values.RecordingLogger logger = new Values.RecordingLogger();
+
+
+  @Test
+  void testBreakerOpensAfterFailuresAndServesLastValue() {
+    final CircuitBreaker breaker =
+        new CircuitBreaker(logger, new CircuitBreaker.Settings(3, 60_000, 0, 60_000, true, false),
+            "counter");
+
+    assertTrue(breaker.allow());
+    breaker.success(expansion, null, params, "42", 0);
+    assertNull(breaker.fallback(expansion, null, PlaceholderParameters.of("other")));
+
+    for (int i = 0; i < 3; i++) {
+      assertTrue(breaker.allow());
+      breaker.failure(expansion, params, new IllegalStateException("failure " + i));
+    }
+
+    assertEquals(CircuitBreaker.State.OPEN, breaker.state());
+    assertFalse(breaker.allow());
+    assertEquals("42", breaker.fallback(expansion, null, params));
+  }
+
+  @Test
+  void testSlowRequestsCountAsFailures() {
+    final CircuitBreaker breaker =
+        new CircuitBreaker(logger, new CircuitBreaker.Settings(2, 60_000, 5, 60_000, false, false),
+            "counter");
+
+    breaker.success(expansion, null, params, "1", 1_000_000);
+    breaker.success(expansion, null, params, "1", 10_000_000);
+    assertEquals(CircuitBreaker.State.CLOSED, breaker.state());
+
+    breaker.success(expansion, null, params, "1", 10_000_000);
+    assertEquals(CircuitBreaker.State.OPEN, breaker.state());
+    assertNull(breaker.fallback(expansion, null, params));
+  }
+
+  @Test
+  void testHalfOpenProbeClosesOrReopensTheBreaker() {
+    final CircuitBreaker breaker =
+        new CircuitBreaker(logger, new CircuitBreaker.Settings(1, 60_000, 0, 0, false, false),
+            "counter");
+
+    breaker.failure(expansion, params, new IllegalStateException());
+    assertEquals(CircuitBreaker.State.OPEN, breaker.state());
+
+    assertTrue(breaker.allow());
+    assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.state());
+    assertFalse(breaker.allow(), "only a single probe is let through");
+
+    breaker.failure(expansion, params, new IllegalStateException());
+    assertEquals(CircuitBreaker.State.OPEN, breaker.state());
+
+    assertTrue(breaker.allow());
+    breaker.success(expansion, null, params, "1", 0);
+    assertEquals(CircuitBreaker.State.CLOSED, breaker.state());
+    assertTrue(breaker.allow());
+  }
+
+  @Test
+  void testProbeThrowingAnErrorReopensTheBreaker() {
+    final CircuitBreaker breaker =
+        new CircuitBreaker(logger, new CircuitBreaker.Settings(1, 60_000, 0, 0, false, false),
+            "counter");
+
+    assertNull(breaker.request(expansion, null, params, (e, p, a) -> {
+      throw new IllegalStateException();
+    }));
+    assertEquals(CircuitBreaker.State.OPEN, breaker.state());
+
+    assertThrows(StackOverflowError.class, () -> breaker.request(expansion, null, params,
+        (e, p, a) -> {
+          throw new StackOverflowError();
+        }));
+    assertEquals(CircuitBreaker.State.OPEN, breaker.state());
+
+    assertEquals("1", breaker.request(expansion, null, params, (e, p, a) -> "1"));
+    assertEquals(CircuitBreaker.State.CLOSED, breaker.state());
+  }
+
+  @Test
+  void testBreakersPerPrefix() {
+    final CircuitBreaker breaker =
+        new CircuitBreaker(logger, new CircuitBreaker.Settings(1, 60_000, 0, 60_000, false, true),
+            "counter");
+
+    final CircuitBreaker value = breaker.of(params);
+    assertSame(value, breaker.of(PlaceholderParameters.of("value_2")));
+
+    value.failure(expansion, params, new IllegalStateException());
+    assertEquals(CircuitBreaker.State.OPEN, value.state());
+    assertEquals(CircuitBreaker.State.CLOSED, breaker.of(PlaceholderParameters.of("max")).state());
+  }
+
+}
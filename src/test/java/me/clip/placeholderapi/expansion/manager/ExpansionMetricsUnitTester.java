@@ -0,0 +1,105 @@
+/*
+ * This file is part of PlaceholderAPI
+ *
+ * PlaceholderAPI
+ * Copyright (c) 2015 - 2021 PlaceholderAPI Team
+ *
+ * PlaceholderAPI free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PlaceholderAPI is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package me.clip.placeholderapi.expansion.manager;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import me.clip.placeholderapi.expansion.PlaceholderParameters;
+import org.junit.jupiter.api.Test;
+
+public final class ExpansionMetricsUnitTester {
+
+  @Test
+  void testHistogramBucketsContainTheirValues() {
+    for (long value = 0; value < 100_000; value++) {
+      final long highest = LatencyHistogram.highest(LatencyHistogram.index(value));
+
+      assertTrue(highest >= value && highest <= value + value / 8, "value " + value);
+    }
+
+    assertEquals(Long.MAX_VALUE,
+        LatencyHistogram.highest(LatencyHistogram.index(Long.MAX_VALUE)));
+  }
+
+  @Test
+  void testMetricsRecordCallsErrorsAndQuantiles() {
+    final ExpansionMetrics metrics = new ExpansionMetrics();
+
+    for (int i = 1; i <= 100; i++) {
+      metrics.record(PlaceholderParameters.of(i % 2 == 0 ? "even_" + i : "odd_" + i), i * 1_000L,
+          i == 100, true);
+    }
+
+    assertEquals(100, metrics.getCalls());
+    assertEquals(1, metrics.getErrors());
+    assertEquals(5_050_000, metrics.getTotalNanos());
+
+    final long median = metrics.getQuantileNanos(0.5);
+    assertTrue(median >= 50_000 && median <= 50_000 + 50_000 / 8, "median " + median);
+
+    assertEquals(50, metrics.getPrefixes().get("even").getCalls());
+    assertEquals(1, metrics.getPrefixes().get("even").getErrors());
+    assertEquals(50, metrics.getPrefixes().get("odd").getCalls());
+  }
+
+  @Test
+  void testHistogramCountsConcurrentRecords() throws Exception {
+    final LatencyHistogram histogram = new LatencyHistogram();
+    final ExecutorService executor = Executors.newFixedThreadPool(4);
+    final CountDownLatch start = new CountDownLatch(1);
+
+    try {
+      final List<Future<?>> futures = new ArrayList<>();
+      for (int thread = 0; thread < 4; thread++) {
+        futures.add(executor.submit(() -> {
+          start.await();
+
+          // every thread records the same values, so all of them race for the same buckets
+          for (long value = 1; value <= 10_000; value++) {
+            histogram.record(value);
+          }
+          return null;
+        }));
+      }
+
+      start.countDown();
+      for (final Future<?> future : futures) {
+        future.get();
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+
+    assertEquals(LatencyHistogram.highest(LatencyHistogram.index(10_000)),
+        histogram.quantile(1));
+    assertEquals(1, histogram.quantile(1 / 40_000.0));
+    assertEquals(LatencyHistogram.highest(LatencyHistogram.index(5_000)),
+        histogram.quantile(0.5));
+  }
+
+}
@@ -0,0 +1,204 @@
+/*
+ * This file is part of PlaceholderAPI
+ *
+ * PlaceholderAPI
+ * Copyright (c) 2015 - 2021 PlaceholderAPI Team
+ *
+ * PlaceholderAPI free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PlaceholderAPI is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package me.clip.placeholderapi.expansion.manager;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.google.common.collect.ImmutableMap;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import me.clip.placeholderapi.Values;
+import me.clip.placeholderapi.expansion.PlaceholderExpansion;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Registers and unregisters expansions from several threads at once, while other threads read
+ * the registry the way {@code getExpansion}, {@code getIdentifiers} and {@code getExpansions} do.
+ */
+public final class ExpansionRegistryConcurrencyUnitTester {
+
+  private static final int THREADS = 8;
+  private static final int EXPANSIONS = 500;
+
+
+  @Test
+  void testConcurrentWritersLoseNoUpdates() throws InterruptedException {
+    final ExpansionRegistry registry = new ExpansionRegistry();
+    final PlaceholderExpansion[][] expansions = new PlaceholderExpansion[THREADS][EXPANSIONS];
+
+    run(THREADS, thread -> {
+      for (int i = 0; i < EXPANSIONS; i++) {
+        expansions[thread][i] = new Values.MockNamedPlaceholderExpansion("w" + thread + "_" + i);
+        registry.put(expansions[thread][i].getIdentifier(), expansions[thread][i]);
+      }
+      for (int i = 0; i < EXPANSIONS; i += 2) {
+        if (!registry.remove(expansions[thread][i].getIdentifier(), expansions[thread][i])) {
+          throw new AssertionError("lost " + expansions[thread][i].getIdentifier());
+        }
+      }
+    });
+
+    final Map<String, PlaceholderExpansion> snapshot = registry.snapshot();
+    assertEquals(THREADS * EXPANSIONS / 2, snapshot.size());
+
+    for (int thread = 0; thread < THREADS; thread++) {
+      for (int i = 1; i < EXPANSIONS; i += 2) {
+        assertSame(expansions[thread][i], snapshot.get("w" + thread + "_" + i));
+        assertSame(expansions[thread][i], registry.apply("W" + thread + "_" + i));
+      }
+    }
+  }
+
+  @Test
+  void testReadersNeverSeeTornSnapshots() throws InterruptedException {
+    final ExpansionRegistry registry = new ExpansionRegistry();
+    final PlaceholderExpansion[] expansions = new PlaceholderExpansion[EXPANSIONS];
+    for (int i = 0; i < EXPANSIONS; i++) {
+      expansions[i] = new Values.MockNamedPlaceholderExpansion("p" + i);
+    }
+
+    final AtomicBoolean writing = new AtomicBoolean(true);
+    final Queue<String> errors = new ConcurrentLinkedQueue<>();
+
+    run(THREADS, thread -> {
+      if (thread == 0) {
+        try {
+          for (final PlaceholderExpansion expansion : expansions) {
+            registry.put(expansion.getIdentifier(), expansion);
+          }
+          for (final PlaceholderExpansion expansion : expansions) {
+            registry.remove(expansion.getIdentifier(), expansion);
+          }
+        } finally {
+          writing.set(false);
+        }
+        return;
+      }
+
+      // expansions are added from the first and then removed from the first, so every snapshot
+      // holds a contiguous range of them whose bounds only ever grow
+      int lowest = 0;
+      int highest = 0;
+
+      while (writing.get()) {
+        final ImmutableMap<String, PlaceholderExpansion> snapshot = registry.snapshot();
+        if (snapshot.keySet().size() != snapshot.values().size()) {
+          errors.add("identifiers and expansions of one snapshot differ in size");
+        }
+        if (snapshot.isEmpty()) {
+          continue;
+        }
+
+        int min = Integer.MAX_VALUE;
+        int max = Integer.MIN_VALUE;
+        for (final Map.Entry<String, PlaceholderExpansion> entry : snapshot.entrySet()) {
+          final int index = Integer.parseInt(entry.getKey().substring(1));
+          if (entry.getValue() != expansions[index]) {
+            errors.add(entry.getKey() + " is registered with another expansion");
+          }
+
+          min = Math.min(min, index);
+          max = Math.max(max, index);
+        }
+
+        if (max - min + 1 != snapshot.size()) {
+          errors.add("snapshot holds " + snapshot.size() + " expansions from " + min + " to "
+              + max);
+        }
+        if (min < lowest || max + 1 < highest) {
+          errors.add("snapshot from " + min + " to " + max + " is older than one read before");
+        }
+
+        lowest = min;
+        highest = max + 1;
+
+        final PlaceholderExpansion found = registry.apply("p" + max);
+        if (found != null && found != expansions[max]) {
+          errors.add("p" + max + " was found with another expansion");
+        }
+      }
+    });
+
+    assertTrue(errors.isEmpty(), () -> errors.size() + " errors, first: " + errors.peek());
+    assertTrue(registry.snapshot().isEmpty());
+  }
+
+  @Test
+  void testStaleRemoveKeepsReplacement() {
+    final ExpansionRegistry registry = new ExpansionRegistry();
+    final PlaceholderExpansion old = new Values.MockNamedPlaceholderExpansion("named");
+    final PlaceholderExpansion replacement = new Values.MockNamedPlaceholderExpansion("named");
+
+    registry.put("named", old);
+    registry.put("named", replacement);
+
+    assertFalse(registry.remove("named", old));
+    assertSame(replacement, registry.apply("named"));
+
+    assertTrue(registry.remove("named", replacement));
+    assertNull(registry.apply("named"));
+  }
+
+
+  private static void run(final int threads, final Task task) throws InterruptedException {
+    final CountDownLatch start = new CountDownLatch(1);
+    final Queue<Throwable> failures = new ConcurrentLinkedQueue<>();
+    final List<Thread> started = new ArrayList<>();
+
+    for (int i = 0; i < threads; i++) {
+      final int thread = i;
+      final Thread runner = new Thread(() -> {
+        try {
+          start.await();
+          task.run(thread);
+        } catch (final Throwable ex) {
+          failures.add(ex);
+        }
+      });
+
+      runner.start();
+      started.add(runner);
+    }
+
+    start.countDown();
+    for (final Thread runner : started) {
+      runner.join();
+    }
+
+    assertTrue(failures.isEmpty(), () -> "thread failed: " + failures.peek());
+  }
+
+  @FunctionalInterface
+  private interface Task {
+
+    void run(final int thread) throws Exception;
+  }
+
+}
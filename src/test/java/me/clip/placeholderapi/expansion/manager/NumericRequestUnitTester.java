@@ -0,0 +1,181 @@
+/*
+ * This file is part of PlaceholderAPI
+ *
+ * PlaceholderAPI
+ * Copyright (c) 2015 - 2021 PlaceholderAPI Team
+ *
+ * PlaceholderAPI free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PlaceholderAPI is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package me.clip.placeholderapi.expansion.manager;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import me.clip.placeholderapi.expansion.Numeric;
+import me.clip.placeholderapi.expansion.PlaceholderExpansion;
+import me.clip.placeholderapi.expansion.PlaceholderParameters;
+import me.clip.placeholderapi.util.NumberFormatter;
+import org.bukkit.OfflinePlayer;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.junit.jupiter.api.Test;
+
+public final class NumericRequestUnitTester {
+
+  private static final NumberFormatter FORMATTER = new NumberFormatter("#,##0", "#,##0.##");
+  private static final MockNumericPlaceholderExpansion EXPANSION =
+      new MockNumericPlaceholderExpansion();
+
+
+  @Test
+  void testNumericPlaceholdersAreFormatted() {
+    assertEquals("1,234", call("level_1234"));
+    assertEquals("2.5", call("ratio_5_2"));
+  }
+
+  @Test
+  void testInvalidIntegerParametersFallBackToOnRequest() {
+    assertNull(call("level_abc"));
+    assertNull(call("level"));
+    assertEquals("text", call("name"));
+  }
+
+  @Test
+  void testInvalidDecimalParametersFallBackToOnRequest() {
+    assertNull(call("ratio_1_0"));
+    assertNull(call("ratio_1_x"));
+  }
+
+  @Test
+  void testKindWithoutItsMethodThrows() {
+    final IllegalStateException exception = assertThrows(IllegalStateException.class,
+        () -> call(new MockIntegerPlaceholderExpansion(), "ratio"));
+
+    assertEquals("Placeholder ratio is of the kind DECIMAL, but onDoubleRequest is not implemented",
+        exception.getMessage());
+    assertEquals("7", call(new MockIntegerPlaceholderExpansion(), "level"));
+  }
+
+
+  @Nullable
+  private static String call(@NotNull final String params) {
+    return call(EXPANSION, params);
+  }
+
+  @Nullable
+  private static String call(@NotNull final PlaceholderExpansion expansion,
+      @NotNull final String params) {
+    return LocalExpansionManager.call(expansion, null, PlaceholderParameters.of(params),
+        FORMATTER, null);
+  }
+
+
+  public static final class MockNumericPlaceholderExpansion extends PlaceholderExpansion
+      implements Numeric {
+
+    @NotNull
+    @Override
+    public String getIdentifier() {
+      return "numeric";
+    }
+
+    @NotNull
+    @Override
+    public String getAuthor() {
+      return "Sxtanna";
+    }
+
+    @NotNull
+    @Override
+    public String getVersion() {
+      return "1.0";
+    }
+
+    @Nullable
+    @Override
+    public Kind getNumericKind(@NotNull final PlaceholderParameters params) {
+      if (params.is(0, "level")) {
+        return params.size() == 2 && params.get(1).chars().allMatch(Character::isDigit)
+            ? Kind.INTEGER : null;
+      }
+
+      return params.is(0, "ratio") && params.size() == 3 && isNumber(params.get(1))
+          && isNumber(params.get(2)) && Double.parseDouble(params.get(2)) != 0
+          ? Kind.DECIMAL : null;
+    }
+
+    @Override
+    public long onLongRequest(@Nullable final OfflinePlayer player,
+        @NotNull final PlaceholderParameters params) {
+      return Long.parseLong(params.get(1));
+    }
+
+    @Override
+    public double onDoubleRequest(@Nullable final OfflinePlayer player,
+        @NotNull final PlaceholderParameters params) {
+      return Double.parseDouble(params.get(1)) / Double.parseDouble(params.get(2));
+    }
+
+    @Override
+    public String onRequest(@Nullable final OfflinePlayer player, @NotNull final String params) {
+      return "name".equals(params) ? "text" : null;
+    }
+
+    private static boolean isNumber(@NotNull final String text) {
+      return !text.isEmpty() && text.chars().allMatch(Character::isDigit);
+    }
+
+  }
+
+  /**
+   * Only implements {@link #onLongRequest}, but claims decimal placeholders too
+   */
+  public static final class MockIntegerPlaceholderExpansion extends PlaceholderExpansion
+      implements Numeric {
+
+    @NotNull
+    @Override
+    public String getIdentifier() {
+      return "integer";
+    }
+
+    @NotNull
+    @Override
+    public String getAuthor() {
+      return "Sxtanna";
+    }
+
+    @NotNull
+    @Override
+    public String getVersion() {
+      return "1.0";
+    }
+
+    @Nullable
+    @Override
+    public Kind getNumericKind(@NotNull final PlaceholderParameters params) {
+      return params.is(0, "level") ? Kind.INTEGER : Kind.DECIMAL;
+    }
+
+    @Override
+    public long onLongRequest(@Nullable final OfflinePlayer player,
+        @NotNull final PlaceholderParameters params) {
+      return 7;
+    }
+
+  }
+
+}
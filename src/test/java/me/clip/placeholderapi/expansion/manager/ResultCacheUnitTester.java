@@ -0,0 +1,138 @@
+/*
+ * This file is part of PlaceholderAPI
+ *
+ * PlaceholderAPI
+ * Copyright (c) 2015 - 2021 PlaceholderAPI Team
+ *
+ * PlaceholderAPI free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PlaceholderAPI is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package me.clip.placeholderapi.expansion.manager;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.concurrent.atomic.AtomicLong;
+import me.clip.placeholderapi.Values;
+import me.clip.placeholderapi.expansion.PlaceholderParameters;
+import me.clip.placeholderapi.replacer.Resolver;
+import org.junit.jupiter.api.Test;
+
+public final class ResultCacheUnitTester {
+
+  private static final PlaceholderParameters PARAMS = PlaceholderParameters.of("value");
+
+  private final Values.MockCounterPlaceholderExpansion counter =
+      new Values.MockCounterPlaceholderExpansion();
+
+  private final AtomicLong time = new AtomicLong(1_000_000);
+
+  private boolean registered = true;
+  private final ResultCache cache = new ResultCache(expansion -> registered, time::get);
+
+
+  @Test
+  void testValuesAreReusedUntilTheirTtl() {
+    assertEquals("1", request(1_000));
+    time.addAndGet(999);
+    assertEquals("1", request(1_000));
+
+    time.addAndGet(1);
+    assertEquals("2", request(1_000), "expired values are never returned, even before advance");
+    assertEquals(1, cache.stats().hitCount());
+  }
+
+  @Test
+  void testExpiryAcrossWheelRotations() {
+    // longer than the 512 slots of 50ms of one rotation
+    final long ttl = 40_000;
+    assertEquals("1", request(ttl));
+
+    for (long elapsed = 0; elapsed < ttl - 50; elapsed += 50) {
+      time.addAndGet(50);
+      cache.advance();
+    }
+
+    assertEquals(1, cache.size());
+    assertEquals(0, cache.stats().evictionCount());
+
+    time.addAndGet(100);
+    cache.advance();
+
+    assertEquals(0, cache.size());
+    assertEquals(1, cache.stats().evictionCount());
+  }
+
+  @Test
+  void testValueWrittenAgainSurvivesExpiryOfTheOldOne() {
+    assertEquals("1", request(100));
+
+    time.addAndGet(100);
+    assertEquals("2", request(1_000));
+
+    time.addAndGet(100);
+    cache.advance();
+
+    assertEquals(1, cache.size());
+    assertEquals("2", request(1_000));
+  }
+
+  @Test
+  void testHugeTtlDoesNotOverflow() {
+    assertEquals("1", request(Long.MAX_VALUE));
+
+    time.addAndGet(60_000);
+    cache.advance();
+
+    assertEquals("1", request(Long.MAX_VALUE));
+    assertEquals(1, cache.size());
+  }
+
+
+  @Test
+  void testValuesOfUnregisteredExpansionsAreNotKept() {
+    registered = false;
+
+    assertEquals("1", request(1_000));
+    assertEquals("2", request(1_000));
+    assertEquals(0, cache.size());
+  }
+
+  @Test
+  void testSizeIsBounded() {
+    for (int i = 0; i <= ResultCache.MAX_ENTRIES; i++) {
+      request(PlaceholderParameters.of("value_" + i), 1_000);
+    }
+
+    assertEquals(ResultCache.MAX_ENTRIES, cache.size());
+
+    final PlaceholderParameters first = PlaceholderParameters.of("value_0");
+    assertEquals("1", request(first, 1_000));
+
+    // values already cached are still replaced once they expired
+    time.addAndGet(1_000);
+    final String replaced = request(first, 1_000);
+    assertEquals(replaced, request(first, 1_000));
+    assertEquals(ResultCache.MAX_ENTRIES, cache.size());
+  }
+
+
+  private String request(final long ttl) {
+    return request(PARAMS, ttl);
+  }
+
+  private String request(final PlaceholderParameters params, final long ttl) {
+    return cache.request(counter, null, params, ttl, Resolver.DIRECT);
+  }
+
+}
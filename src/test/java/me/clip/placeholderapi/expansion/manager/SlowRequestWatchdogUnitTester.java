@@ -0,0 +1,139 @@
+/*
+ * This file is part of PlaceholderAPI
+ *
+ * PlaceholderAPI
+ * Copyright (c) 2015 - 2021 PlaceholderAPI Team
+ *
+ * PlaceholderAPI free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PlaceholderAPI is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package me.clip.placeholderapi.expansion.manager;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.google.common.collect.ImmutableMap;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.LogRecord;
+import me.clip.placeholderapi.Values;
+import me.clip.placeholderapi.expansion.PlaceholderExpansion;
+import org.junit.jupiter.api.Test;
+
+public final class SlowRequestWatchdogUnitTester {
+
+  private static final PlaceholderExpansion EXPANSION = Values.PLACEHOLDERS.get("counter");
+
+  private static final Map<String, String> PLUGINS = ImmutableMap.of(
+      "com.example.board", "Board",
+      "com.example.chat", "Chat");
+
+  private final Values.RecordingLogger logger = new Values.RecordingLogger();
+  private final List<LogRecord> records = logger.getRecords();
+
+  private final AtomicLong clock = new AtomicLong();
+  private final SlowRequestWatchdog watchdog = new SlowRequestWatchdog(logger, 1,
+      Thread.currentThread(), clock::get, () -> PLUGINS);
+
+
+  @Test
+  void testCallerIsTheFrameAfterTheOutermostPlaceholderAPIFrame() {
+    final StackTraceElement[] stack = {
+        frame("me.clip.placeholderapi.expansion.manager.LocalExpansionManager", "request"),
+        frame("me.clip.placeholderapi.replacer.CharsReplacer", "apply"),
+        frame("me.clip.placeholderapi.PlaceholderAPI", "setPlaceholders"),
+        frame("com.example.board.BoardTask", "update"),
+        frame("me.clip.placeholderapi.PlaceholderAPI", "setPlaceholders"),
+        frame("com.example.chat.ChatListener", "onChat"),
+        frame("org.bukkit.craftbukkit.scheduler.CraftScheduler", "mainThreadHeartbeat")
+    };
+
+    assertEquals("Chat (com.example.chat.ChatListener.onChat)",
+        SlowRequestWatchdog.findCaller(stack, PLUGINS));
+  }
+
+  @Test
+  void testCallerOutsideOfPluginsIsOnlyItsLocation() {
+    final StackTraceElement[] stack = {
+        frame("me.clip.placeholderapi.PlaceholderAPI", "setPlaceholders"),
+        frame("com.example.boarding.Gate", "open")
+    };
+
+    assertEquals("com.example.boarding.Gate.open",
+        SlowRequestWatchdog.findCaller(stack, PLUGINS));
+    assertEquals("unknown",
+        SlowRequestWatchdog.findCaller(new StackTraceElement[]{stack[1]}, PLUGINS));
+    assertEquals("unknown",
+        SlowRequestWatchdog.findCaller(new StackTraceElement[]{stack[0]}, Collections.emptyMap()));
+  }
+
+  @Test
+  void testSlowRequestIsReportedOncePerInterval() throws InterruptedException {
+    slowRequest(2);
+    assertEquals(1, records.size());
+    assertTrue(records.get(0).getMessage().startsWith("Placeholder %counter_slow% has been"));
+
+    slowRequest(1);
+    slowRequest(1);
+    assertEquals(1, records.size());
+
+    clock.addAndGet(TimeUnit.MINUTES.toMillis(1));
+    slowRequest(1);
+    assertEquals(2, records.size());
+    assertTrue(records.get(1).getMessage()
+        .endsWith("(2 slow requests of this expansion since the last report)"));
+  }
+
+  @Test
+  void testRequestUnderThresholdIsNotReported() {
+    final SlowRequestWatchdog patient = new SlowRequestWatchdog(logger, 60_000,
+        Thread.currentThread(), clock::get, () -> PLUGINS);
+
+    final SlowRequestWatchdog.Request previous = patient.enter(EXPANSION, "fast");
+    patient.sample();
+    patient.exit(previous);
+    patient.sample();
+
+    assertTrue(records.isEmpty());
+  }
+
+  @Test
+  void testNoWatchdogWithoutThreshold() {
+    assertNull(SlowRequestWatchdog.start(logger, 0, Thread.currentThread()));
+  }
+
+
+  /**
+   * Runs a request over the threshold and samples it the given amount of times.
+   */
+  private void slowRequest(final int samples) throws InterruptedException {
+    final SlowRequestWatchdog.Request previous = watchdog.enter(EXPANSION, "slow");
+    Thread.sleep(5);
+
+    for (int i = 0; i < samples; i++) {
+      watchdog.sample();
+    }
+
+    watchdog.exit(previous);
+  }
+
+  private static StackTraceElement frame(final String className, final String methodName) {
+    return new StackTraceElement(className, methodName, null, -1);
+  }
+
+}
@@ -0,0 +1,185 @@
+/*
+ * This file is part of PlaceholderAPI
+ *
+ * PlaceholderAPI
+ * Copyright (c) 2015 - 2021 PlaceholderAPI Team
+ *
+ * PlaceholderAPI free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PlaceholderAPI is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package me.clip.placeholderapi.expansion.manager;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.UUID;
+import me.clip.placeholderapi.Values;
+import me.clip.placeholderapi.expansion.PlaceholderExpansion;
+import me.clip.placeholderapi.expansion.PlaceholderParameters;
+import me.clip.placeholderapi.expansion.SubPlaceholder;
+import org.bukkit.OfflinePlayer;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.junit.jupiter.api.Test;
+
+public final class SubPlaceholderRouterUnitTester {
+
+  private static final MockRoutedPlaceholderExpansion EXPANSION =
+      new MockRoutedPlaceholderExpansion();
+  private static final SubPlaceholderRouter ROUTER =
+      SubPlaceholderRouter.compile(MockRoutedPlaceholderExpansion.class);
+
+
+  @Test
+  void testRouterDispatchesLiteralPatterns() {
+    assertEquals("online", route("status"));
+    assertEquals("2.5", route("balance_gems"));
+    assertEquals("second", route("top_2_name"));
+  }
+
+  @Test
+  void testRouterBindsTrailingArgumentToRemainingSegments() {
+    assertEquals("A_B", route("upper_a_b"));
+    assertEquals("12", route("add_5_7"));
+  }
+
+  @Test
+  void testRouterPrefersLiteralsOverArguments() {
+    assertEquals("first", route("top_1_name"));
+    assertEquals("top value", route("top_value"));
+  }
+
+  @Test
+  void testRouterPassesPlayer() {
+    final OfflinePlayer player = Values.mockPlayer(new UUID(0, 1));
+
+    assertEquals("true", route(player, "player"));
+    assertEquals("false", route(null, "player"));
+  }
+
+  @Test
+  void testRouterRejectsUnmatchedAndInvalidArguments() {
+    assertNull(ROUTER.find(PlaceholderParameters.of("unknown")));
+    assertNull(ROUTER.find(PlaceholderParameters.of("top_1")));
+    assertNull(route("top_first_name"));
+    assertNull(route("add_5_seven"));
+  }
+
+  @Test
+  void testRouterPassesHandlerExceptionsOn() {
+    assertThrows(NumberFormatException.class, () -> route("parse_abc"));
+    assertEquals("3", route("parse_3"));
+  }
+
+  @Test
+  void testRouterRejectsInvalidHandlers() {
+    assertNull(SubPlaceholderRouter.compile(Values.MockPlayerPlaceholderExpansion.class));
+    assertThrows(IllegalArgumentException.class,
+        () -> SubPlaceholderRouter.compile(MockInvalidPlaceholderExpansion.class));
+  }
+
+
+  @Nullable
+  private static String route(@NotNull final String params) {
+    return route(null, params);
+  }
+
+  @Nullable
+  private static String route(@Nullable final OfflinePlayer player,
+      @NotNull final String params) {
+    final PlaceholderParameters view = PlaceholderParameters.of(params);
+    final SubPlaceholderRouter.Route route = ROUTER.find(view);
+
+    assertNotNull(route, params);
+    return route.invoke(EXPANSION, player, view);
+  }
+
+
+  public static class MockRoutedPlaceholderExpansion extends PlaceholderExpansion {
+
+    @NotNull
+    @Override
+    public String getIdentifier() {
+      return "routed";
+    }
+
+    @NotNull
+    @Override
+    public String getAuthor() {
+      return "Sxtanna";
+    }
+
+    @NotNull
+    @Override
+    public String getVersion() {
+      return "1.0";
+    }
+
+    @SubPlaceholder("status")
+    public String status() {
+      return "online";
+    }
+
+    @SubPlaceholder("balance_{currency}")
+    public double balance(final String currency) {
+      return "gems".equals(currency) ? 2.5 : 0;
+    }
+
+    @SubPlaceholder("top_{position}_name")
+    private String topName(final int position) {
+      return position == 1 ? "first" : "second";
+    }
+
+    @SubPlaceholder("top_1_name")
+    public String topFirstName() {
+      return "first";
+    }
+
+    @SubPlaceholder("top_value")
+    public String topValue() {
+      return "top value";
+    }
+
+    @SubPlaceholder("upper_{text}")
+    public String upper(final String text) {
+      return text.toUpperCase();
+    }
+
+    @SubPlaceholder("add_{a}_{b}")
+    public long add(final long a, final Long b) {
+      return a + b;
+    }
+
+    @SubPlaceholder("parse_{text}")
+    public int parse(final String text) {
+      return Integer.parseInt(text);
+    }
+
+    @SubPlaceholder("player")
+    public boolean player(final OfflinePlayer player) {
+      return player != null;
+    }
+  }
+
+  public static final class MockInvalidPlaceholderExpansion extends MockRoutedPlaceholderExpansion {
+
+    @SubPlaceholder("invalid_{a}")
+    public String invalid(final Object argument) {
+      return null;
+    }
+  }
+
+}
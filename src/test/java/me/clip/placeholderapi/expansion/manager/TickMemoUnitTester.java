@@ -0,0 +1,99 @@
+/*
+ * This file is part of PlaceholderAPI
+ *
+ * PlaceholderAPI
+ * Copyright (c) 2015 - 2021 PlaceholderAPI Team
+ *
+ * PlaceholderAPI free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PlaceholderAPI is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package me.clip.placeholderapi.expansion.manager;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.UUID;
+import me.clip.placeholderapi.Values;
+import me.clip.placeholderapi.expansion.PlaceholderExpansion;
+import me.clip.placeholderapi.expansion.PlaceholderParameters;
+import me.clip.placeholderapi.replacer.Resolver;
+import org.bukkit.OfflinePlayer;
+import org.junit.jupiter.api.Test;
+
+public final class TickMemoUnitTester {
+
+  private final Values.MockCounterPlaceholderExpansion counter =
+      new Values.MockCounterPlaceholderExpansion();
+  private final Values.MockCounterPlaceholderExpansion other =
+      new Values.MockCounterPlaceholderExpansion();
+
+  private final TickMemo memo = new TickMemo();
+
+
+  @Test
+  void testValueIsRequestedOncePerTick() {
+    final OfflinePlayer player = Values.mockPlayer(UUID.randomUUID());
+
+    assertEquals("1", request(counter, player, "value"));
+    assertEquals("1", request(counter, player, "value"));
+    assertEquals("1", request(counter, Values.mockPlayer(player.getUniqueId()), "value"));
+
+    assertEquals(1, counter.getRequests());
+    assertEquals(2, memo.hits());
+    assertEquals(1, memo.misses());
+  }
+
+  @Test
+  void testValuesAreRememberedPerExpansionPlayerAndParameters() {
+    final OfflinePlayer player = Values.mockPlayer(UUID.randomUUID());
+
+    assertEquals("1", request(counter, player, "value"));
+    assertEquals("2", request(counter, player, "other"));
+    assertEquals("3", request(counter, Values.mockPlayer(UUID.randomUUID()), "value"));
+    assertEquals("4", request(counter, null, "value"));
+    assertEquals("1", request(other, player, "value"));
+
+    assertEquals("4", request(counter, null, "value"));
+    assertEquals(4, counter.getRequests());
+  }
+
+  @Test
+  void testClearForgetsValues() {
+    assertEquals("1", request(counter, null, "value"));
+
+    memo.clear();
+
+    assertEquals("2", request(counter, null, "value"));
+    assertEquals("2", request(counter, null, "value"));
+  }
+
+  @Test
+  void testNullValuesAreNotRemembered() {
+    final Resolver nothing = (expansion, player, params) -> {
+      Resolver.DIRECT.resolve(expansion, player, params);
+      return null;
+    };
+
+    assertNull(memo.request(counter, null, PlaceholderParameters.of("value"), nothing));
+    assertNull(memo.request(counter, null, PlaceholderParameters.of("value"), nothing));
+    assertEquals(2, counter.getRequests());
+  }
+
+
+  private String request(final PlaceholderExpansion expansion, final OfflinePlayer player,
+      final String params) {
+    return memo.request(expansion, player, PlaceholderParameters.of(params), Resolver.DIRECT);
+  }
+
+}
@@ -0,0 +1,120 @@
+/*
+ * This file is part of PlaceholderAPI
+ *
+ * PlaceholderAPI
+ * Copyright (c) 2015 - 2021 PlaceholderAPI Team
+ *
+ * PlaceholderAPI free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PlaceholderAPI is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package me.clip.placeholderapi.expansion.manager;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.logging.LogRecord;
+import me.clip.placeholderapi.Values;
+import me.clip.placeholderapi.expansion.PlaceholderExpansion;
+import me.clip.placeholderapi.expansion.ThreadSafe;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public final class UnsafeRequestReporterUnitTester {
+
+  private static final PlaceholderExpansion EXPANSION = Values.PLACEHOLDERS.get("counter");
+  private static final PlaceholderExpansion OTHER = Values.PLACEHOLDERS.get("player");
+
+  private final Values.RecordingLogger logger = new Values.RecordingLogger();
+  private final List<LogRecord> records = logger.getRecords();
+
+  private boolean primary;
+  private final UnsafeRequestReporter reporter = new UnsafeRequestReporter(logger, () -> primary);
+
+
+  @BeforeEach
+  void enable() {
+    reporter.setEnabled(true);
+  }
+
+  @Test
+  void testExpansionIsReportedOnce() {
+    reporter.check(EXPANSION, "value");
+    reporter.check(EXPANSION, "other");
+    assertEquals(1, records.size());
+    assertTrue(records.get(0).getMessage()
+        .startsWith("Expansion counter is not thread safe, but its placeholder %counter_value%"));
+
+    reporter.check(OTHER, "name");
+    assertEquals(2, records.size());
+  }
+
+  @Test
+  void testForgottenExpansionIsReportedAgain() {
+    reporter.check(EXPANSION, "value");
+    reporter.forget(EXPANSION);
+    reporter.check(EXPANSION, "value");
+
+    assertEquals(2, records.size());
+  }
+
+  @Test
+  void testReloadForgetsReportedExpansions() {
+    reporter.check(EXPANSION, "value");
+    reporter.setEnabled(true);
+    reporter.check(EXPANSION, "value");
+
+    assertEquals(2, records.size());
+  }
+
+  @Test
+  void testSafeRequestsAreNotReported() {
+    primary = true;
+    reporter.check(EXPANSION, "value");
+
+    primary = false;
+    reporter.check(new MockThreadSafePlaceholderExpansion(), "value");
+
+    reporter.setEnabled(false);
+    reporter.check(EXPANSION, "value");
+
+    assertTrue(records.isEmpty());
+  }
+
+
+  private static final class MockThreadSafePlaceholderExpansion extends PlaceholderExpansion
+      implements ThreadSafe {
+
+    @NotNull
+    @Override
+    public String getIdentifier() {
+      return "safe";
+    }
+
+    @NotNull
+    @Override
+    public String getAuthor() {
+      return "Sxtanna";
+    }
+
+    @NotNull
+    @Override
+    public String getVersion() {
+      return "1.0";
+    }
+
+  }
+
+}
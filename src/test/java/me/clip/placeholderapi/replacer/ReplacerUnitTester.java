@@ -25,8 +25,21 @@ import static me.clip.placeholderapi.Values.MockPlayerPlaceholderExpansion.PLAYE
 import static me.clip.placeholderapi.Values.MockPlayerPlaceholderExpansion.PLAYER_Y;
 import static me.clip.placeholderapi.Values.MockPlayerPlaceholderExpansion.PLAYER_Z;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 import me.clip.placeholderapi.Values;
+import me.clip.placeholderapi.expansion.PlaceholderParameters;
+import org.bukkit.ChatColor;
+import org.bukkit.OfflinePlayer;
 import org.junit.jupiter.api.Test;
 
 public final class ReplacerUnitTester {
@@ -96,4 +109,263 @@ public final class ReplacerUnitTester {
         Values.CHARS_REPLACER.apply(text, null, Values.PLACEHOLDERS::get));
   }
 
+  @Test
+  void testCompiledTemplateProducesExpectedSentence() {
+    final PlaceholderTemplate template = Values.CHARS_REPLACER
+        .compile(Values.LARGE_TEXT, Values.PLACEHOLDERS::get);
+
+    assertEquals(Values.CHARS_REPLACER.apply(Values.LARGE_TEXT, null, Values.PLACEHOLDERS::get),
+        template.render(null));
+  }
+
+  @Test
+  void testCompiledTemplateMatchesCharsReplacer() {
+    final String text = "&aHello %player_name%&r, 10% and %hello world 15% \\&xffffff %player_z";
+    final PlaceholderTemplate template = Values.CHARS_REPLACER
+        .compile(text, Values.PLACEHOLDERS::get);
+
+    assertEquals(Values.CHARS_REPLACER.apply(text, null, Values.PLACEHOLDERS::get),
+        template.render(null));
+  }
+
+  @Test
+  void testTemplateCacheParsesDistinctTextOnce() {
+    final TemplateCache cache = new TemplateCache(Values.CHARS_REPLACER, 10);
+
+    assertEquals(PLAYER_NAME, cache.apply("%player_name%", null, Values.PLACEHOLDERS::get));
+    assertEquals(PLAYER_NAME, cache.apply("%player_name%", null, Values.PLACEHOLDERS::get));
+
+    assertEquals(1, cache.stats().missCount());
+    assertEquals(1, cache.stats().hitCount());
+
+    cache.invalidateAll();
+    assertEquals(0, cache.size());
+    assertEquals(1, cache.stats().hitCount(), "statistics outlive invalidations");
+
+    cache.setReplacer(new CharsReplacer(Replacer.Closure.BRACKET));
+    assertEquals(PLAYER_NAME, cache.apply("{player_name}", null, Values.PLACEHOLDERS::get));
+    assertEquals(2, cache.stats().missCount());
+  }
+
+  @Test
+  void testCharsReplacerAppendsToBuilder() {
+    final StringBuilder builder = new StringBuilder("Name: ");
+    Values.CHARS_REPLACER.applyTo("%player_name%", null, Values.PLACEHOLDERS::get, builder);
+
+    assertEquals("Name: " + PLAYER_NAME, builder.toString());
+  }
+
+  @Test
+  void testCharsReplacerReturnsPlainTextUnchanged() {
+    assertSame(Values.PLAIN_TEXT,
+        Values.CHARS_REPLACER.apply(Values.PLAIN_TEXT, null, Values.PLACEHOLDERS::get));
+  }
+
+  @Test
+  void testCharsReplacerTranslatesPlainColoredText() {
+    assertEquals(ChatColor.translateAlternateColorCodes('&', Values.PLAIN_COLORED_TEXT),
+        Values.CHARS_REPLACER.apply(Values.PLAIN_COLORED_TEXT, null, Values.PLACEHOLDERS::get));
+  }
+
+  @Test
+  void testCombinedReplacerMatchesTwoPasses() {
+    final String twoPass = Values.CHARS_REPLACER_BRACKET.apply(
+        Values.CHARS_REPLACER.apply(Values.MIXED_TEXT, null, Values.PLACEHOLDERS::get), null,
+        Values.PLACEHOLDERS::get);
+
+    assertEquals(twoPass,
+        Values.CHARS_REPLACER_COMBINED.apply(Values.MIXED_TEXT, null, Values.PLACEHOLDERS::get));
+  }
+
+  @Test
+  void testNestedReplacerResolvesInnerPlaceholders() {
+    assertEquals("My name is SXTANNA and my location is 10",
+        Values.CHARS_REPLACER_NESTED.apply(Values.NESTED_TEXT, null, Values.PLACEHOLDERS::get));
+  }
+
+  @Test
+  void testNestedReplacerRespectsDepth() {
+    final String text = "%player_upper_{player_upper_{player_name}}%";
+
+    assertEquals("SXTANNA",
+        Values.CHARS_REPLACER_NESTED.apply(text, null, Values.PLACEHOLDERS::get));
+    assertEquals("{PLAYER_NAME}",
+        new CharsReplacer(Replacer.Closure.PERCENT, 1).apply(text, null, Values.PLACEHOLDERS::get));
+  }
+
+  @Test
+  void testNestedTemplateMatchesApply() {
+    assertEquals(
+        Values.CHARS_REPLACER_NESTED.apply(Values.NESTED_TEXT, null, Values.PLACEHOLDERS::get),
+        Values.CHARS_REPLACER_NESTED.compile(Values.NESTED_TEXT, Values.PLACEHOLDERS::get)
+            .render(null));
+  }
+
+  @Test
+  void testRelationalReplacerProducesExpectedValues() {
+    assertEquals(ChatColor.translateAlternateColorCodes('&',
+        "&afriend &7%player_name% is %rel_relation_enemy%, not &afriend"),
+        Values.RELATIONAL_REPLACER.apply(Values.RELATIONAL_TEXT, null, null,
+            Values.PLACEHOLDERS::get));
+  }
+
+  @Test
+  void testRelationalReplacerLeavesMalformedPlaceholders() {
+    assertEquals("%rel_% %rel_relation% %rel_player_name% %rel_relation_friend",
+        Values.RELATIONAL_REPLACER.apply(
+            "%rel_% %rel_relation% %rel_player_name% %rel_relation_friend", null, null,
+            Values.PLACEHOLDERS::get));
+  }
+
+  @Test
+  void testRelationalReplacerMatchesTailAsHead() {
+    assertEquals(ChatColor.translateAlternateColorCodes('&', "%rel_&afriend"),
+        Values.RELATIONAL_REPLACER.apply("%rel_%rel_relation_friend%", null, null,
+            Values.PLACEHOLDERS::get));
+  }
+
+  @Test
+  void testTemplateRendersForAllPlayers() {
+    final List<OfflinePlayer> players = Arrays.asList(Values.mockPlayer(UUID.randomUUID()),
+        Values.mockPlayer(UUID.randomUUID()), Values.mockPlayer(UUID.randomUUID()));
+
+    final Map<UUID, String> rendered = Values.CHARS_REPLACER
+        .compile(Values.LARGE_TEXT, Values.PLACEHOLDERS::get).renderAll(players);
+
+    assertEquals(players.size(), rendered.size());
+    for (final OfflinePlayer player : players) {
+      assertEquals(
+          Values.CHARS_REPLACER.apply(Values.LARGE_TEXT, player, Values.PLACEHOLDERS::get),
+          rendered.get(player.getUniqueId()));
+    }
+  }
+
+  @Test
+  void testTemplateRequestsGlobalPlaceholdersOnce() {
+    final List<OfflinePlayer> players = Arrays.asList(Values.mockPlayer(UUID.randomUUID()),
+        Values.mockPlayer(UUID.randomUUID()), Values.mockPlayer(UUID.randomUUID()));
+
+    final Map<UUID, String> rendered = Values.CHARS_REPLACER
+        .compile("%counter_global% %counter_player%", Values.PLACEHOLDERS::get)
+        .renderAll(players);
+
+    assertEquals(1, rendered.values().stream().map(text -> text.split(" ")[0]).distinct().count());
+    assertEquals(3, rendered.values().stream().map(text -> text.split(" ")[1]).distinct().count());
+  }
+
+  @Test
+  void testTemplateRendersAsyncOnExecutor() {
+    final List<Runnable> tasks = new ArrayList<>();
+
+    final CompletableFuture<String> future = Values.CHARS_REPLACER
+        .compile(Values.LARGE_TEXT, Values.PLACEHOLDERS::get).renderAsync(null, tasks::add);
+
+    assertFalse(future.isDone());
+    assertEquals(1, tasks.size());
+
+    tasks.forEach(Runnable::run);
+
+    assertEquals(Values.CHARS_REPLACER.apply(Values.LARGE_TEXT, null, Values.PLACEHOLDERS::get),
+        future.join());
+  }
+
+  @Test
+  void testTemplateRendersStyledLikeLegacy() {
+    final PlaceholderTemplate template =
+        Values.CHARS_REPLACER.compile(Values.STYLED_TEXT, Values.PLACEHOLDERS::get);
+
+    final StringBuilder styled = new StringBuilder();
+    template.renderStyled(null, recordingVisitor(styled));
+
+    final StringBuilder legacy = new StringBuilder();
+    LegacyText.visit(template.render(null), recordingVisitor(legacy));
+
+    assertEquals(legacy.toString(), styled.toString());
+    assertEquals("[#123456]Hex [l]bold Sxtanna[r], done &zno [a]RED %unknown_&a%",
+        styled.toString());
+
+    // the runs of the literals are only split once and replayed afterwards
+    final StringBuilder again = new StringBuilder();
+    template.renderStyled(null, recordingVisitor(again));
+
+    assertEquals(styled.toString(), again.toString());
+  }
+
+
+  @Test
+  void testTemplateCacheAppliesAllLines() {
+    final List<String> lines = Arrays.asList(Values.SMALL_TEXT, Values.PLAIN_TEXT,
+        Values.LARGE_TEXT, Values.PLAIN_COLORED_TEXT, Values.SMALL_TEXT);
+
+    final List<String> expected = new ArrayList<>();
+    for (final String line : lines) {
+      expected.add(Values.CHARS_REPLACER.apply(line, null, Values.PLACEHOLDERS::get));
+    }
+
+    assertEquals(expected, new TemplateCache(Values.CHARS_REPLACER, 16)
+        .applyAll(lines, null, Values.PLACEHOLDERS::get));
+    assertEquals(expected, new TemplateCache(Values.CHARS_REPLACER, 0)
+        .applyAll(lines, null, Values.PLACEHOLDERS::get));
+  }
+
+  @Test
+  void testParameterViewSplitsSegments() {
+    final PlaceholderParameters params = PlaceholderParameters.of("a__bc_");
+
+    assertEquals(4, params.size());
+    assertEquals("a", params.get(0));
+    assertEquals("", params.get(1));
+    assertEquals("bc", params.get(2));
+    assertEquals("", params.get(3));
+    assertNull(params.get(4));
+    assertEquals("_bc_", params.from(1));
+    assertTrue(params.is(2, "bc"));
+    assertFalse(params.is(2, "b"));
+    assertTrue(params.isIgnoreCase(0, "A"));
+    assertEquals(1, PlaceholderParameters.of("").size());
+  }
+
+  @Test
+  void testReplacerPassesParameterView() {
+    final String text = "%segments_size_a__b_% %segments_REST_x_y% %segments_first_second%";
+
+    assertEquals("5 x_y second", Values.CHARS_REPLACER.apply(text, null, Values.PLACEHOLDERS::get));
+    assertEquals("5 x_y second",
+        Values.CHARS_REPLACER.compile(text, Values.PLACEHOLDERS::get).render(null));
+    assertEquals("5 x_y second", Values.REGEX_REPLACER.apply(text, null, Values.PLACEHOLDERS::get));
+  }
+
+  @Test
+  void testIdentifierTrieMatchesMapLookup() {
+    final IdentifierTrie trie = Values.PLACEHOLDER_TRIE;
+
+    assertSame(Values.PLACEHOLDERS.get("player"), trie.find("%PlAyEr_name%", 1, 7));
+    assertNull(trie.find("%play_name%", 1, 5));
+    assertNull(trie.find("50% off", 3, 7));
+
+    final String text = "%PLAYER_name% %Unknown_Thing% 50% off %player% {Player_x}";
+    assertEquals(Values.CHARS_REPLACER_COMBINED.apply(text, null, Values.PLACEHOLDERS::get),
+        Values.CHARS_REPLACER_COMBINED.apply(text, null, trie));
+  }
+
+
+  private static StyleVisitor recordingVisitor(final StringBuilder builder) {
+    return new StyleVisitor() {
+      @Override
+      public void text(final CharSequence text, final int start, final int end) {
+        builder.append(text, start, end);
+      }
+
+      @Override
+      public void format(final char code) {
+        builder.append('[').append(code).append(']');
+      }
+
+      @Override
+      public void color(final int rgb) {
+        builder.append("[#").append(String.format("%06x", rgb)).append(']');
+      }
+    };
+  }
+
 }
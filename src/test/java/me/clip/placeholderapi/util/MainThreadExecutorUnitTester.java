@@ -0,0 +1,119 @@
+/*
+ * This file is part of PlaceholderAPI
+ *
+ * PlaceholderAPI
+ * Copyright (c) 2015 - 2021 PlaceholderAPI Team
+ *
+ * PlaceholderAPI free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PlaceholderAPI is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package me.clip.placeholderapi.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+import org.bukkit.plugin.Plugin;
+import org.junit.jupiter.api.Test;
+
+public final class MainThreadExecutorUnitTester {
+
+  private final List<Runnable> scheduled = new ArrayList<>();
+  private final AtomicInteger ran = new AtomicInteger();
+
+
+  @Test
+  void testTasksOfATickAreBatchedIntoOneScheduledTask() {
+    final MainThreadExecutor executor = new MainThreadExecutor(plugin(), () -> false,
+        scheduled::add);
+
+    executor.execute(ran::incrementAndGet);
+    executor.execute(ran::incrementAndGet);
+    final CompletableFuture<String> future = executor.supply(() -> "value");
+
+    assertEquals(1, scheduled.size());
+    assertEquals(0, ran.get());
+
+    scheduled.get(0).run();
+
+    assertEquals(2, ran.get());
+    assertEquals("value", future.join());
+
+    executor.execute(ran::incrementAndGet);
+    assertEquals(2, scheduled.size(), "a new batch is scheduled after the last one ran");
+  }
+
+  @Test
+  void testTasksRunInlineOnTheMainThread() {
+    final MainThreadExecutor executor = new MainThreadExecutor(plugin(), () -> true,
+        scheduled::add);
+
+    executor.execute(ran::incrementAndGet);
+
+    assertEquals(1, ran.get());
+    assertEquals("value", executor.supply(() -> "value").join());
+    assertTrue(scheduled.isEmpty());
+  }
+
+  @Test
+  void testFailedSchedulingFailsQueuedFutures() {
+    final AtomicInteger attempts = new AtomicInteger();
+    final MainThreadExecutor executor = new MainThreadExecutor(plugin(), () -> false, task -> {
+      if (attempts.incrementAndGet() == 1) {
+        throw new IllegalStateException("plugin is disabled");
+      }
+      scheduled.add(task);
+    });
+
+    final CompletableFuture<String> failed = executor.supply(() -> "value");
+
+    final ExecutionException ex = assertThrows(ExecutionException.class, failed::get);
+    assertTrue(ex.getCause() instanceof RejectedExecutionException);
+
+    final CompletableFuture<String> next = executor.supply(() -> "next");
+    assertEquals(1, scheduled.size(), "scheduling is attempted again after a failure");
+
+    scheduled.get(0).run();
+    assertEquals("next", next.join());
+  }
+
+  @Test
+  void testFailedSchedulingRejectsExecute() {
+    final MainThreadExecutor executor = new MainThreadExecutor(plugin(), () -> false, task -> {
+      throw new IllegalStateException("plugin is disabled");
+    });
+
+    assertThrows(RejectedExecutionException.class, () -> executor.execute(ran::incrementAndGet));
+    assertEquals(0, ran.get());
+  }
+
+
+  private static Plugin plugin() {
+    final Logger logger = Logger.getAnonymousLogger();
+    logger.setUseParentHandlers(false);
+
+    return (Plugin) Proxy.newProxyInstance(Plugin.class.getClassLoader(),
+        new Class<?>[]{Plugin.class},
+        (proxy, method, args) -> "getLogger".equals(method.getName()) ? logger : null);
+  }
+
+}
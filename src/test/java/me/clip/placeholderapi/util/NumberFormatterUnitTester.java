@@ -0,0 +1,58 @@
+/*
+ * This file is part of PlaceholderAPI
+ *
+ * PlaceholderAPI
+ * Copyright (c) 2015 - 2021 PlaceholderAPI Team
+ *
+ * PlaceholderAPI free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PlaceholderAPI is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package me.clip.placeholderapi.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.text.DecimalFormat;
+import org.junit.jupiter.api.Test;
+
+public final class NumberFormatterUnitTester {
+
+  private static final NumberFormatter FORMATTER = new NumberFormatter("#,##0", "#,##0.##");
+
+
+  @Test
+  void testFormatterMatchesDecimalFormat() {
+    final DecimalFormat integer = new DecimalFormat("#,##0");
+    final DecimalFormat decimal = new DecimalFormat("#,##0.##");
+
+    for (final long value : new long[]{-1, 0, 7, 255, 256, 1234567, Long.MAX_VALUE}) {
+      assertEquals(integer.format(value), FORMATTER.format(value));
+    }
+    for (final double value : new double[]{-0.5, 0, 2.5, 1234.5678}) {
+      assertEquals(decimal.format(value), FORMATTER.format(value));
+    }
+  }
+
+  @Test
+  void testFormatterReusesSmallIntegers() {
+    assertSame(FORMATTER.format(42), FORMATTER.format(42));
+  }
+
+  @Test
+  void testFormatterRejectsInvalidPatterns() {
+    assertThrows(IllegalArgumentException.class, () -> new NumberFormatter("#,##0", "0.0.0"));
+  }
+
+}